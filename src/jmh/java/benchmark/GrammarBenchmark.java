@@ -0,0 +1,45 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Lab 1 (Variant 11) grammar: string generation, classification and FA construction. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GrammarBenchmark {
+
+  private Object grammar;
+
+  @Setup
+  public void setUp() throws Throwable {
+    grammar = (Object) Lab.NEW_GRAMMAR.invokeExact();
+  }
+
+  @Benchmark
+  public String generateString() throws Throwable {
+    return (String) Lab.GENERATE_STRING.invokeExact(grammar);
+  }
+
+  @Benchmark
+  public Object classifyGrammar() throws Throwable {
+    return (Object) Lab.CLASSIFY_GRAMMAR.invokeExact(grammar);
+  }
+
+  @Benchmark
+  public Object toFiniteAutomaton() throws Throwable {
+    return (Object) Lab.TO_FINITE_AUTOMATON.invokeExact(grammar);
+  }
+}
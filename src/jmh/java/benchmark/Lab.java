@@ -0,0 +1,128 @@
+package benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Handles to the lab classes, which live in the unnamed package and so cannot be
+ * referenced from a named one (JMH rejects benchmarks in the unnamed package).
+ * The handles are static finals, so the JIT constant-folds and inlines them and
+ * the indirection does not show up in the measurements.
+ */
+final class Lab {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+  static final MethodHandle NEW_GRAMMAR;
+  static final MethodHandle GENERATE_STRING;
+  static final MethodHandle CLASSIFY_GRAMMAR;
+  static final MethodHandle TO_FINITE_AUTOMATON;
+  static final MethodHandle STRING_BELONG_TO_LANGUAGE;
+  static final MethodHandle NEW_NDFA;
+  static final MethodHandle NDFA_TRANSITION;
+  static final MethodHandle NEW_CONVERTER;
+  static final MethodHandle CONVERT;
+  static final MethodHandle DFA_TABLE_FROM;
+  static final MethodHandle NEW_BYTECODE_COMPILER;
+  static final MethodHandle BYTECODE_COMPILE;
+  static final MethodHandle WRITE_BINARY;
+  static final MethodHandle MAP_BINARY;
+  static final MethodHandle ACCEPTS;
+  static final MethodHandle BIT_PARALLEL_OF;
+
+  static {
+    try {
+      Class<?> grammar = Class.forName("Grammar");
+      Class<?> fa = Class.forName("FiniteAutomaton");
+      Class<?> ndfa = Class.forName("Ndfa");
+      Class<?> converter = Class.forName("NfaToDfaConverter");
+      Class<?> table = Class.forName("DfaTable");
+      Class<?> compiler = Class.forName("DfaBytecodeCompiler");
+      Class<?> format = Class.forName("DfaBinaryFormat");
+      Class<?> automaton = Class.forName("Automaton");
+
+      NEW_GRAMMAR = erase(LOOKUP.findConstructor(grammar, MethodType.methodType(void.class)));
+      GENERATE_STRING = erase(LOOKUP.findVirtual(grammar, "generateString",
+          MethodType.methodType(String.class)));
+      CLASSIFY_GRAMMAR = erase(LOOKUP.findVirtual(grammar, "classifyGrammar",
+          MethodType.methodType(Class.forName("AutomatonType"))));
+      TO_FINITE_AUTOMATON = erase(LOOKUP.findVirtual(grammar, "toFiniteAutomaton",
+          MethodType.methodType(fa)));
+      STRING_BELONG_TO_LANGUAGE = erase(LOOKUP.findVirtual(fa, "stringBelongToLanguage",
+          MethodType.methodType(boolean.class, String.class)));
+      NEW_NDFA = erase(LOOKUP.findConstructor(ndfa, MethodType.methodType(void.class,
+          Set.class, Set.class, Map.class, String.class, Set.class)));
+      NDFA_TRANSITION = erase(LOOKUP.findVirtual(ndfa, "transition",
+          MethodType.methodType(Set.class, Set.class, char.class)));
+      NEW_CONVERTER = erase(LOOKUP.findConstructor(converter, MethodType.methodType(void.class)));
+      CONVERT = erase(LOOKUP.findVirtual(converter, "convert", MethodType.methodType(fa, ndfa)));
+      DFA_TABLE_FROM = erase(LOOKUP.findStatic(table, "from", MethodType.methodType(table, fa)));
+      NEW_BYTECODE_COMPILER = erase(LOOKUP.findConstructor(compiler,
+          MethodType.methodType(void.class, int.class)));
+      BYTECODE_COMPILE = erase(LOOKUP.findVirtual(compiler, "compile",
+          MethodType.methodType(automaton, fa)));
+      WRITE_BINARY = erase(LOOKUP.findStatic(format, "write",
+          MethodType.methodType(void.class, fa, java.nio.file.Path.class)));
+      MAP_BINARY = erase(LOOKUP.findStatic(format, "map",
+          MethodType.methodType(Class.forName("MappedDfa"), java.nio.file.Path.class)));
+      ACCEPTS = erase(LOOKUP.findVirtual(automaton, "accepts",
+          MethodType.methodType(boolean.class, String.class)));
+      BIT_PARALLEL_OF = erase(LOOKUP.findStatic(Class.forName("BitParallelNfa"), "of",
+          MethodType.methodType(Class.forName("BitParallelNfa"), ndfa)));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private Lab() {
+  }
+
+  /** Replaces lab-class parameter and return types with Object so call sites can use invokeExact. */
+  private static MethodHandle erase(MethodHandle handle) {
+    MethodType type = handle.type();
+    for (int i = 0; i < type.parameterCount(); i++) {
+      Class<?> p = type.parameterType(i);
+      if (!p.isPrimitive() && p.getPackageName().isEmpty()) {
+        type = type.changeParameterType(i, Object.class);
+      }
+    }
+    Class<?> r = type.returnType();
+    if (!r.isPrimitive() && r.getPackageName().isEmpty()) {
+      type = type.changeReturnType(Object.class);
+    }
+    return handle.asType(type);
+  }
+
+  /**
+   * NFA for (a|b)*a(a|b)^n: n + 2 states, whose minimal DFA has 2^(n+1) states.
+   * The classic worst case for subset construction.
+   */
+  static Object suffixNfa(int n) throws Throwable {
+    Set<String> states = new HashSet<>();
+    Map<String, Map<Character, Set<String>>> delta = new HashMap<>();
+    for (int i = 0; i <= n + 1; i++) {
+      states.add("q" + i);
+    }
+    put(delta, "q0", 'a', "q0");
+    put(delta, "q0", 'b', "q0");
+    put(delta, "q0", 'a', "q1");
+    for (int i = 1; i <= n; i++) {
+      put(delta, "q" + i, 'a', "q" + (i + 1));
+      put(delta, "q" + i, 'b', "q" + (i + 1));
+    }
+    return (Object) NEW_NDFA.invokeExact(states, (Set<Character>) Set.of('a', 'b'),
+        (Map<?, ?>) delta, "q0", (Set<String>) Set.of("q" + (n + 1)));
+  }
+
+  private static void put(Map<String, Map<Character, Set<String>>> delta,
+                          String from, char symbol, String to) {
+    delta.computeIfAbsent(from, k -> new HashMap<>())
+        .computeIfAbsent(symbol, k -> new HashSet<>())
+        .add(to);
+  }
+}
@@ -0,0 +1,59 @@
+package benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lexer.Lexer;
+import lexer.Token;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@code Lexer.tokenize} on synthetic Lab 3 sources of 1 KB to 100 MB.
+ * Reported as sources per second; multiply the score by the size for bytes per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class LexerBenchmark {
+
+  private static final String SNIPPET = """
+      let x = 12;
+      let y = 3.14;
+      if (x >= 10) {
+          return sin(x) + cos(y) / 2;
+      } else {
+          return x != y;
+      }
+      """;
+
+  @Param({"1024", "1048576", "104857600"})
+  int sizeBytes;
+
+  private String source;
+
+  @Setup
+  public void setUp() {
+    StringBuilder sb = new StringBuilder(sizeBytes + SNIPPET.length());
+    while (sb.length() < sizeBytes) {
+      sb.append(SNIPPET);
+    }
+    source = sb.toString();
+  }
+
+  @Benchmark
+  public List<Token> tokenize() {
+    return new Lexer(source).tokenize();
+  }
+}
@@ -0,0 +1,97 @@
+package benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Whole-string matching on random a/b input against the (a|b)*a(a|b)^n automaton,
+ * across every matching backend: the determinised DFA in each representation, and
+ * the NFA itself simulated bit-parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MatchingBenchmark {
+
+  @Param({"3", "8"})
+  int n;
+
+  @Param({"64", "4096"})
+  int length;
+
+  private Object dfa;
+  private Object table;
+  private Object compiled;
+  private Object mapped;
+  private Object bitParallel;
+  private Path mappedFile;
+  private String input;
+
+  @Setup
+  public void setUp() throws Throwable {
+    Object ndfa = Lab.suffixNfa(n);
+    Object converter = (Object) Lab.NEW_CONVERTER.invokeExact();
+    dfa = (Object) Lab.CONVERT.invokeExact(converter, ndfa);
+    bitParallel = (Object) Lab.BIT_PARALLEL_OF.invokeExact(ndfa);
+    table = (Object) Lab.DFA_TABLE_FROM.invokeExact(dfa);
+    Object compiler = (Object) Lab.NEW_BYTECODE_COMPILER.invokeExact(Integer.MAX_VALUE);
+    compiled = (Object) Lab.BYTECODE_COMPILE.invokeExact(compiler, dfa);
+    mappedFile = Files.createTempFile("matching-benchmark", ".dfa");
+    Lab.WRITE_BINARY.invokeExact(dfa, mappedFile);
+    mapped = (Object) Lab.MAP_BINARY.invokeExact(mappedFile);
+
+    Random rnd = new Random(42);
+    StringBuilder sb = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      sb.append(rnd.nextBoolean() ? 'a' : 'b');
+    }
+    input = sb.toString();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    Files.deleteIfExists(mappedFile);
+  }
+
+  @Benchmark
+  public boolean mapBased() throws Throwable {
+    return (boolean) Lab.STRING_BELONG_TO_LANGUAGE.invokeExact(dfa, input);
+  }
+
+  @Benchmark
+  public boolean table() throws Throwable {
+    return (boolean) Lab.ACCEPTS.invokeExact(table, input);
+  }
+
+  @Benchmark
+  public boolean bytecode() throws Throwable {
+    return (boolean) Lab.ACCEPTS.invokeExact(compiled, input);
+  }
+
+  @Benchmark
+  public boolean memoryMapped() throws Throwable {
+    return (boolean) Lab.ACCEPTS.invokeExact(mapped, input);
+  }
+
+  @Benchmark
+  public boolean bitParallelNfa() throws Throwable {
+    return (boolean) Lab.ACCEPTS.invokeExact(bitParallel, input);
+  }
+}
@@ -0,0 +1,50 @@
+package benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** One {@code Ndfa.transition} step from the set of all states of (a|b)*a(a|b)^n. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NdfaTransitionBenchmark {
+
+  @Param({"4", "16", "64"})
+  int n;
+
+  private Object ndfa;
+  private Set<String> allStates;
+
+  @Setup
+  public void setUp() throws Throwable {
+    ndfa = Lab.suffixNfa(n);
+    allStates = new java.util.HashSet<>();
+    for (int i = 0; i <= n + 1; i++) {
+      allStates.add("q" + i);
+    }
+  }
+
+  @Benchmark
+  public Set<?> transitionOnA() throws Throwable {
+    return (Set<?>) Lab.NDFA_TRANSITION.invokeExact(ndfa, (Set<?>) allStates, 'a');
+  }
+
+  @Benchmark
+  public Set<?> transitionOnB() throws Throwable {
+    return (Set<?>) Lab.NDFA_TRANSITION.invokeExact(ndfa, (Set<?>) allStates, 'b');
+  }
+}
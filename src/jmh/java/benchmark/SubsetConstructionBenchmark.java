@@ -0,0 +1,45 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@code NfaToDfaConverter.convert} on (a|b)*a(a|b)^n, whose DFA has 2^(n+1) states,
+ * so throughput should at least halve with each increment of n; subsets also grow with n,
+ * so the measured drop is steeper (about 8x per {@code @Param} step of 2).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SubsetConstructionBenchmark {
+
+  @Param({"2", "4", "6", "8", "10", "12", "14"})
+  int n;
+
+  private Object converter;
+  private Object ndfa;
+
+  @Setup
+  public void setUp() throws Throwable {
+    converter = (Object) Lab.NEW_CONVERTER.invokeExact();
+    ndfa = Lab.suffixNfa(n);
+  }
+
+  @Benchmark
+  public Object convert() throws Throwable {
+    return (Object) Lab.CONVERT.invokeExact(converter, ndfa);
+  }
+}
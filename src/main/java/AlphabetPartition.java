@@ -0,0 +1,171 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Coarsest partition of the char alphabet into equivalence classes with respect to a
+ * set of transition labels: two chars share a class iff every label contains both or
+ * neither. Class 0 always holds the chars that appear in no label.
+ *
+ * <p>Chars are mapped to classes through a two-level table: the high byte selects a
+ * 256-entry block and the low byte indexes into it. Identical blocks are stored once,
+ * so the table stays small (a Unicode-wide automaton with a few ranges needs only a
+ * handful of distinct blocks) and lookup is two array loads.
+ */
+public final class AlphabetPartition {
+
+  private final int[] blockOffset; // high byte -> offset into classes
+  private final char[] classes;
+  private final int classCount;
+  private final int[] intervalStarts; // elementary intervals, sorted
+  private final int[] intervalClasses;
+
+  private AlphabetPartition(int[] blockOffset, char[] classes, int classCount,
+                            int[] intervalStarts, int[] intervalClasses) {
+    this.blockOffset = blockOffset;
+    this.classes = classes;
+    this.classCount = classCount;
+    this.intervalStarts = intervalStarts;
+    this.intervalClasses = intervalClasses;
+  }
+
+  /**
+   * Partitions the alphabet so that every label (a set of ranges, e.g. all ranges on
+   * transitions between one pair of states) is a union of classes.
+   */
+  public static AlphabetPartition of(Collection<? extends Collection<CharRange>> labels) {
+    // Boundary sweep: at each boundary, labels are switched on or off.
+    TreeMap<Integer, List<Integer>> toggles = new TreeMap<>();
+    toggles.put(0, new ArrayList<>());
+    int labelId = 0;
+    for (Collection<CharRange> label : labels) {
+      for (CharRange r : merge(label)) {
+        toggles.computeIfAbsent((int) r.first(), k -> new ArrayList<>()).add(labelId);
+        toggles.computeIfAbsent(r.last() + 1, k -> new ArrayList<>()).add(labelId);
+      }
+      labelId++;
+    }
+
+    Map<BitSet, Integer> classIds = new HashMap<>();
+    classIds.put(new BitSet(), 0);
+    BitSet active = new BitSet(labelId);
+    int[] starts = new int[toggles.size()];
+    int[] intervalClasses = new int[toggles.size()];
+    int intervals = 0;
+    for (Map.Entry<Integer, List<Integer>> e : toggles.entrySet()) {
+      if (e.getKey() > Character.MAX_VALUE) {
+        break;
+      }
+      for (int id : e.getValue()) {
+        active.flip(id);
+      }
+      Integer cls = classIds.get(active);
+      if (cls == null) {
+        cls = classIds.size();
+        classIds.put((BitSet) active.clone(), cls);
+      }
+      starts[intervals] = e.getKey();
+      intervalClasses[intervals] = cls;
+      intervals++;
+    }
+    if (classIds.size() > Character.MAX_VALUE + 1) {
+      throw new IllegalStateException("Too many character classes: " + classIds.size());
+    }
+    starts = Arrays.copyOf(starts, intervals);
+    intervalClasses = Arrays.copyOf(intervalClasses, intervals);
+
+    int[] blockOffset = new int[256];
+    Map<BlockKey, Integer> blocks = new HashMap<>();
+    char[] table = new char[256 * 4];
+    int used = 0;
+    int interval = 0;
+    for (int high = 0; high < 256; high++) {
+      char[] block = new char[256];
+      for (int low = 0; low < 256; low++) {
+        int c = (high << 8) | low;
+        while (interval + 1 < intervals && starts[interval + 1] <= c) {
+          interval++;
+        }
+        block[low] = (char) intervalClasses[interval];
+      }
+      Integer offset = blocks.get(new BlockKey(block));
+      if (offset == null) {
+        offset = used;
+        if (used + 256 > table.length) {
+          table = Arrays.copyOf(table, table.length * 2);
+        }
+        System.arraycopy(block, 0, table, used, 256);
+        used += 256;
+        blocks.put(new BlockKey(block), offset);
+      }
+      blockOffset[high] = offset;
+    }
+    return new AlphabetPartition(blockOffset, Arrays.copyOf(table, used), classIds.size(),
+        starts, intervalClasses);
+  }
+
+  /** Sorts and coalesces overlapping or adjacent ranges of one label. */
+  static List<CharRange> merge(Collection<CharRange> ranges) {
+    List<CharRange> sorted = new ArrayList<>(ranges);
+    sorted.sort(null);
+    List<CharRange> merged = new ArrayList<>();
+    for (CharRange r : sorted) {
+      if (!merged.isEmpty()) {
+        CharRange lastRange = merged.get(merged.size() - 1);
+        if (r.first() <= lastRange.last() + 1) {
+          if (r.last() > lastRange.last()) {
+            merged.set(merged.size() - 1, new CharRange(lastRange.first(), r.last()));
+          }
+          continue;
+        }
+      }
+      merged.add(r);
+    }
+    return merged;
+  }
+
+  public int classOf(char c) {
+    return classes[blockOffset[c >>> 8] + (c & 0xFF)];
+  }
+
+  public int classCount() {
+    return classCount;
+  }
+
+  /** Classes whose chars lie inside the given ranges (a label the partition was built from). */
+  public BitSet classesIn(Collection<CharRange> ranges) {
+    BitSet result = new BitSet(classCount);
+    for (CharRange r : ranges) {
+      int i = Arrays.binarySearch(intervalStarts, r.first());
+      if (i < 0) {
+        i = -i - 2;
+      }
+      for (; i < intervalStarts.length && intervalStarts[i] <= r.last(); i++) {
+        result.set(intervalClasses[i]);
+      }
+    }
+    return result;
+  }
+
+  /** Heap footprint of the lookup table, in chars; shared blocks are counted once. */
+  public int tableSize() {
+    return classes.length;
+  }
+
+  private record BlockKey(char[] block) {
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof BlockKey other && Arrays.equals(block, other.block);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(block);
+    }
+  }
+}
@@ -0,0 +1,184 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Weight-bounded LRU cache of compiled automata keyed by {@link StructuralFingerprint}.
+ * Concurrent requests for the same key are single-flight: exactly one caller runs the
+ * compiler, the others wait for its result.
+ *
+ * <pre>
+ * AutomatonCache&lt;FiniteAutomaton&gt; dfas = new AutomatonCache&lt;&gt;(1024);
+ * FiniteAutomaton dfa = dfas.get(ndfa, new NfaToDfaConverter()::convert);
+ * </pre>
+ *
+ * @param <V> type of the compiled value; one cache should hold the result of one kind of compilation
+ */
+public class AutomatonCache<V> {
+
+  private final long maxWeight;
+  private final ToLongFunction<? super V> weigher;
+
+  private final Object lock = new Object();
+  private final LinkedHashMap<StructuralFingerprint, Entry<V>> entries =
+      new LinkedHashMap<>(16, 0.75f, true); // access order = LRU
+  private long weight;
+  private long generation; // bumped by invalidateAll so in-flight results are not cached
+
+  private final ConcurrentHashMap<StructuralFingerprint, CompletableFuture<V>> inFlight =
+      new ConcurrentHashMap<>();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /** Cache bounded by entry count. */
+  public AutomatonCache(int maxEntries) {
+    this(maxEntries, v -> 1L);
+  }
+
+  /** Cache bounded by the total weight of its values, e.g. state count of the compiled automata. */
+  public AutomatonCache(long maxWeight, ToLongFunction<? super V> weigher) {
+    if (maxWeight <= 0) {
+      throw new IllegalArgumentException("maxWeight must be positive: " + maxWeight);
+    }
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+  }
+
+  public V get(Grammar grammar, Function<? super Grammar, ? extends V> compiler) {
+    return get(StructuralFingerprint.of(grammar), () -> compiler.apply(grammar));
+  }
+
+  public V get(Ndfa ndfa, Function<? super Ndfa, ? extends V> compiler) {
+    return get(StructuralFingerprint.of(ndfa), () -> compiler.apply(ndfa));
+  }
+
+  public V get(FiniteAutomaton fa, Function<? super FiniteAutomaton, ? extends V> compiler) {
+    return get(StructuralFingerprint.of(fa), () -> compiler.apply(fa));
+  }
+
+  /**
+   * Returns the cached value for the key, compiling it at most once across all threads.
+   * If the compiler throws, every waiting caller sees the exception and nothing is cached.
+   */
+  public V get(StructuralFingerprint key, Supplier<? extends V> compiler) {
+    synchronized (lock) {
+      Entry<V> cached = entries.get(key);
+      if (cached != null) {
+        hits.increment();
+        return cached.value;
+      }
+    }
+    misses.increment();
+
+    CompletableFuture<V> created = new CompletableFuture<>();
+    CompletableFuture<V> pending = inFlight.putIfAbsent(key, created);
+    if (pending != null) {
+      return await(pending);
+    }
+
+    // Another thread may have finished building between our lookup and putIfAbsent.
+    long startedIn;
+    synchronized (lock) {
+      Entry<V> cached = entries.get(key);
+      if (cached != null) {
+        inFlight.remove(key, created);
+        created.complete(cached.value);
+        return cached.value;
+      }
+      startedIn = generation;
+    }
+
+    try {
+      V value = compiler.get();
+      put(key, value, startedIn);
+      created.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      created.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, created);
+    }
+  }
+
+  public V getIfPresent(StructuralFingerprint key) {
+    synchronized (lock) {
+      Entry<V> cached = entries.get(key);
+      return cached == null ? null : cached.value;
+    }
+  }
+
+  public void invalidateAll() {
+    synchronized (lock) {
+      entries.clear();
+      weight = 0;
+      generation++;
+    }
+  }
+
+  public Stats stats() {
+    synchronized (lock) {
+      return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), weight);
+    }
+  }
+
+  /** Stores the value unless the cache was invalidated since its compilation started. */
+  private void put(StructuralFingerprint key, V value, long startedIn) {
+    long w = weigher.applyAsLong(value);
+    synchronized (lock) {
+      if (generation != startedIn) {
+        return;
+      }
+      Entry<V> previous = entries.put(key, new Entry<>(value, w));
+      if (previous != null) {
+        weight -= previous.weight;
+      }
+      weight += w;
+      Iterator<Map.Entry<StructuralFingerprint, Entry<V>>> it = entries.entrySet().iterator();
+      while (weight > maxWeight && it.hasNext()) {
+        Map.Entry<StructuralFingerprint, Entry<V>> eldest = it.next();
+        weight -= eldest.getValue().weight;
+        it.remove();
+        evictions.increment();
+      }
+    }
+  }
+
+  private static <V> V await(CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException re) {
+        throw re;
+      }
+      if (cause instanceof Error err) {
+        throw err;
+      }
+      throw e;
+    }
+  }
+
+  private record Entry<V>(V value, long weight) {
+  }
+
+  /**
+   * Snapshot of cache counters. Lookups that waited for another thread's compilation count as misses.
+   */
+  public record Stats(long hits, long misses, long evictions, int size, long weight) {
+
+    public double hitRate() {
+      long total = hits + misses;
+      return total == 0 ? 0.0 : (double) hits / total;
+    }
+  }
+}
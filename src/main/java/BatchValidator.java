@@ -0,0 +1,423 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Command-line batch validator: checks every line of many files against one automaton.
+ *
+ * <pre>
+ * java BatchValidator [--regex PATTERN | --grammar FILE] [--rejected-only]
+ *                     [--matchers N] [--batch LINES] [--queue BATCHES] [--open FILES] file...
+ * </pre>
+ *
+ * <p>The automaton comes from a {@link RegexCompiler} pattern, from a right-linear grammar
+ * file (one rule per line, {@code S -> aB | b | ε}, the first rule's left side is the start
+ * symbol, {@code #} starts a comment) or, by default, from the Lab 1 grammar. It is
+ * determinised once and compiled with {@link DfaBytecodeCompiler}, then shared by all matchers.
+ *
+ * <p>Each file is read by its own virtual thread, which cuts it into batches of lines and
+ * hands each batch both to the shared bounded work queue, which the matcher threads drain,
+ * and to the file's own bounded queue, which the writer drains in order. Readers block when
+ * either queue is full, so memory stays bounded however fast they read. At most
+ * {@code --open} files are in flight: a permit is taken, in file order, before a reader
+ * starts and returned by the writer once it has printed the whole file.
+ *
+ * <p>Output is {@code file:line<TAB>ACCEPT|REJECT}, ordered by file and line, followed by
+ * a summary with lines/s and MB/s. A file that fails to read or match is reported as
+ * {@code file: error: ...} and counted as failed; it adds no lines or bytes to the summary.
+ */
+public class BatchValidator {
+
+  private static final Batch END = new Batch(null, 0, null);
+
+  private final Automaton automaton;
+  private final boolean rejectedOnly;
+  private final int matchers;
+  private final int batchLines;
+  private final int queueBatches;
+  private final int openFiles;
+
+  public BatchValidator(Automaton automaton, boolean rejectedOnly, int matchers,
+                        int batchLines, int queueBatches, int openFiles) {
+    this.automaton = automaton;
+    this.rejectedOnly = rejectedOnly;
+    this.matchers = matchers;
+    this.batchLines = batchLines;
+    this.queueBatches = queueBatches;
+    this.openFiles = openFiles;
+  }
+
+  public static void main(String[] args) throws Exception {
+    String regex = null;
+    Path grammarFile = null;
+    boolean rejectedOnly = false;
+    int matchers = Runtime.getRuntime().availableProcessors();
+    int batchLines = 1024;
+    int queueBatches = 256;
+    int openFiles = 64;
+    List<Path> files = new ArrayList<>();
+
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "--regex" -> regex = value(args, ++i);
+        case "--grammar" -> grammarFile = Path.of(value(args, ++i));
+        case "--rejected-only" -> rejectedOnly = true;
+        case "--matchers" -> matchers = positive(args, ++i);
+        case "--batch" -> batchLines = positive(args, ++i);
+        case "--queue" -> queueBatches = positive(args, ++i);
+        case "--open" -> openFiles = positive(args, ++i);
+        default -> {
+          if (args[i].startsWith("--")) {
+            throw new IllegalArgumentException("Unknown option: " + args[i]);
+          }
+          files.add(Path.of(args[i]));
+        }
+      }
+    }
+    if (files.isEmpty()) {
+      System.err.println("Usage: BatchValidator [--regex PATTERN | --grammar FILE] [--rejected-only]"
+          + " [--matchers N] [--batch LINES] [--queue BATCHES] [--open FILES] file...");
+      System.exit(2);
+    }
+
+    Ndfa ndfa;
+    if (regex != null) {
+      ndfa = new RegexCompiler().compile(regex);
+    } else if (grammarFile != null) {
+      ndfa = toNdfa(readGrammar(grammarFile));
+    } else {
+      ndfa = toNdfa(new Grammar());
+    }
+    FiniteAutomaton dfa = new NfaToDfaConverter().convert(ndfa);
+    Automaton automaton = new DfaBytecodeCompiler().compile(dfa);
+
+    PrintWriter out = new PrintWriter(new BufferedWriter(
+        new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16));
+    Summary summary;
+    try {
+      summary = new BatchValidator(automaton, rejectedOnly, matchers, batchLines, queueBatches, openFiles)
+          .run(files, out);
+    } catch (IOException e) {
+      System.err.println(e.getMessage());
+      System.exit(1);
+      return;
+    }
+    out.flush();
+    if (out.checkError()) {
+      System.err.println("Failed to write the summary");
+      System.exit(1);
+    }
+    if (summary.failedFiles() > 0) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Validates all files, writing results and the summary to {@code out}.
+   *
+   * @throws IOException if writing to {@code out} failed, e.g. a closed pipe or a full disk;
+   *     the summary is not printed then
+   */
+  public Summary run(List<Path> files, PrintWriter out) throws IOException, InterruptedException {
+    long started = System.nanoTime();
+    BlockingQueue<Batch> work = new ArrayBlockingQueue<>(queueBatches);
+    // Per-file result queues, in file order; at most openFiles exist at a time.
+    BlockingQueue<BlockingQueue<Batch>> ordered = new LinkedBlockingQueue<>();
+    Semaphore open = new Semaphore(openFiles);
+
+    long lines = 0;
+    long rejected = 0;
+    long bytes = 0;
+    int failed = 0;
+    try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int m = 0; m < matchers; m++) {
+        threads.submit(() -> match(work));
+      }
+      threads.submit(() -> {
+        for (int i = 0; i < files.size(); i++) {
+          open.acquire();
+          Path file = files.get(i);
+          BlockingQueue<Batch> queue = new LinkedBlockingQueue<>(Math.max(2, queueBatches / openFiles));
+          ordered.put(queue);
+          threads.submit(() -> {
+            read(file, queue, work);
+            return null;
+          });
+        }
+        return null;
+      });
+
+      try {
+        for (int i = 0; i < files.size(); i++) {
+          Path file = files.get(i);
+          BlockingQueue<Batch> queue = ordered.take();
+          boolean fileFailed = false;
+          long fileLines = 0;
+          long fileRejected = 0;
+          for (Batch batch = queue.take(); batch != END; batch = queue.take()) {
+            boolean[] accepted = null;
+            if (batch.error != null) {
+              out.println(file + ": error: " + batch.error);
+            } else {
+              try {
+                accepted = batch.result.join();
+              } catch (CompletionException e) {
+                out.println(file + ": error: " + e.getCause());
+              }
+            }
+            if (accepted == null) {
+              fileFailed = true;
+              continue;
+            }
+            for (int k = 0; k < accepted.length; k++) {
+              if (!accepted[k]) {
+                fileRejected++;
+              }
+              if (!accepted[k] || !rejectedOnly) {
+                out.println(file + ":" + (batch.firstLine + k) + "\t" + (accepted[k] ? "ACCEPT" : "REJECT"));
+              }
+            }
+            fileLines += accepted.length;
+          }
+          // A failed file adds nothing to the totals, so lines/s and MB/s describe the same input.
+          if (fileFailed) {
+            failed++;
+          } else {
+            lines += fileLines;
+            rejected += fileRejected;
+            bytes += sizeOf(file);
+          }
+          open.release();
+        }
+        for (int m = 0; m < matchers; m++) {
+          work.put(END);
+        }
+      } catch (RuntimeException | InterruptedException e) {
+        threads.shutdownNow(); // unblock readers and matchers so the executor can close
+        throw e;
+      }
+    }
+
+    if (out.checkError()) {
+      throw new IOException("Failed to write validation results");
+    }
+    Summary summary = new Summary(files.size(), failed, lines, rejected, bytes,
+        System.nanoTime() - started);
+    out.println(summary);
+    return summary;
+  }
+
+  private static long sizeOf(Path file) {
+    try {
+      return Files.size(file);
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private void read(Path file, BlockingQueue<Batch> queue, BlockingQueue<Batch> work)
+      throws InterruptedException {
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      int lineNumber = 1;
+      List<String> lines = new ArrayList<>(batchLines);
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        lines.add(line);
+        if (lines.size() == batchLines) {
+          submit(new Batch(lines, lineNumber, null), queue, work);
+          lineNumber += lines.size();
+          lines = new ArrayList<>(batchLines);
+        }
+      }
+      if (!lines.isEmpty()) {
+        submit(new Batch(lines, lineNumber, null), queue, work);
+      }
+    } catch (IOException | RuntimeException | Error e) {
+      queue.put(new Batch(null, 0, e.toString()));
+    } finally {
+      queue.put(END);
+    }
+  }
+
+  private static void submit(Batch batch, BlockingQueue<Batch> queue, BlockingQueue<Batch> work)
+      throws InterruptedException {
+    queue.put(batch);
+    work.put(batch);
+  }
+
+  private Void match(BlockingQueue<Batch> work) throws InterruptedException {
+    for (Batch batch = work.take(); batch != END; batch = work.take()) {
+      try {
+        boolean[] accepted = new boolean[batch.lines.size()];
+        for (int k = 0; k < accepted.length; k++) {
+          accepted[k] = automaton.accepts(batch.lines.get(k));
+        }
+        batch.result.complete(accepted);
+      } catch (Throwable e) {
+        // Errors too (StackOverflowError, LinkageError from a compiled class): the writer is
+        // waiting on this future and would block forever if it were never completed.
+        batch.result.completeExceptionally(e);
+      }
+    }
+    return null;
+  }
+
+  /** A run of consecutive lines of one file; {@code result} is completed by a matcher. */
+  private static final class Batch {
+    final List<String> lines;
+    final int firstLine;
+    final String error;
+    final CompletableFuture<boolean[]> result = new CompletableFuture<>();
+
+    Batch(List<String> lines, int firstLine, String error) {
+      this.lines = lines;
+      this.firstLine = firstLine;
+      this.error = error;
+    }
+  }
+
+  /**
+   * Totals of one run. {@code lines}, {@code rejected} and {@code bytes} cover only the files
+   * read and matched without error; lines printed before a file failed are not counted.
+   */
+  public record Summary(int files, int failedFiles, long lines, long rejected, long bytes,
+                        long elapsedNanos) {
+
+    public double linesPerSecond() {
+      return lines / seconds();
+    }
+
+    public double megabytesPerSecond() {
+      return bytes / 1e6 / seconds();
+    }
+
+    private double seconds() {
+      return Math.max(elapsedNanos, 1) / 1e9;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("# %d files (%d failed), %d lines, %d accepted, %d rejected in %.3f s:"
+              + " %.0f lines/s, %.2f MB/s",
+          files, failedFiles, lines, lines - rejected, rejected, seconds(),
+          linesPerSecond(), megabytesPerSecond());
+    }
+  }
+
+  /**
+   * Reads a right-linear grammar: {@code A -> aB | a | ε} per line. Left sides are the
+   * non-terminals, every other symbol on a right side is a terminal.
+   */
+  static Grammar readGrammar(Path file) throws IOException {
+    Map<String, List<String>> productions = new LinkedHashMap<>();
+    for (String raw : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+      String line = raw.strip();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      int arrow = line.indexOf("->");
+      if (arrow < 0) {
+        throw new IllegalArgumentException("Expected 'A -> ...' in " + file + ": " + raw);
+      }
+      String left = line.substring(0, arrow).strip();
+      if (left.length() != 1) {
+        throw new IllegalArgumentException("Left side must be one symbol in " + file + ": " + raw);
+      }
+      List<String> rhs = productions.computeIfAbsent(left, k -> new ArrayList<>());
+      for (String alternative : line.substring(arrow + 2).split("\\|")) {
+        rhs.add(alternative.strip().isEmpty() ? "ε" : alternative.strip());
+      }
+    }
+    if (productions.isEmpty()) {
+      throw new IllegalArgumentException("No rules in " + file);
+    }
+
+    Set<String> terminals = new HashSet<>();
+    for (List<String> rhs : productions.values()) {
+      for (String right : rhs) {
+        if ("ε".equals(right)) {
+          continue;
+        }
+        for (int i = 0; i < right.length(); i++) {
+          String symbol = String.valueOf(right.charAt(i));
+          if (!productions.containsKey(symbol)) {
+            terminals.add(symbol);
+          }
+        }
+      }
+    }
+    String start = productions.keySet().iterator().next();
+    return new Grammar(productions.keySet(), terminals, productions, start);
+  }
+
+  /**
+   * Builds an NDFA from a right-linear grammar. Unlike {@link Grammar#toFiniteAutomaton()}
+   * this keeps every alternative, so A → aB | aC or A → a | aB are not collapsed, and an
+   * ε-production makes its non-terminal accepting.
+   */
+  static Ndfa toNdfa(Grammar grammar) {
+    String accept = "F";
+    while (grammar.getNonTerminals().contains(accept)) {
+      accept += "'";
+    }
+    Set<String> states = new HashSet<>(grammar.getNonTerminals());
+    states.add(accept);
+    Set<Character> alphabet = new HashSet<>();
+    Set<String> finalStates = new HashSet<>(Set.of(accept));
+    Map<String, Map<Character, Set<String>>> delta = new HashMap<>();
+
+    for (Map.Entry<String, List<String>> entry : grammar.getProductions().entrySet()) {
+      String left = entry.getKey();
+      for (String right : entry.getValue()) {
+        if ("ε".equals(right)) {
+          finalStates.add(left);
+          continue;
+        }
+        String next = right.length() == 1 ? accept : right.substring(1);
+        if (right.length() > 2 || !grammar.getTerminals().contains(right.substring(0, 1))
+            || (right.length() == 2 && !grammar.getNonTerminals().contains(next))) {
+          throw new IllegalArgumentException("Not right-linear: " + left + " -> " + right);
+        }
+        alphabet.add(right.charAt(0));
+        delta.computeIfAbsent(left, k -> new HashMap<>())
+            .computeIfAbsent(right.charAt(0), k -> new HashSet<>())
+            .add(next);
+      }
+    }
+    return new Ndfa(states, alphabet, delta, grammar.getStartSymbol(), finalStates);
+  }
+
+  private static String value(String[] args, int i) {
+    if (i >= args.length) {
+      throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+    }
+    return args[i];
+  }
+
+  private static int positive(String[] args, int i) {
+    int n = Integer.parseInt(value(args, i));
+    if (n <= 0) {
+      throw new IllegalArgumentException(args[i - 1] + " must be positive");
+    }
+    return n;
+  }
+}
@@ -0,0 +1,271 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import instrumentation.Instrumentation;
+
+/**
+ * Simulates an {@link Ndfa} directly, without determinising it, by keeping the set of
+ * active states as a bit mask. Chars are mapped to classes with an {@link AlphabetPartition}
+ * (chars that move every state to the same targets share a class), and for every class
+ * and state the ε-closed set of successors is precomputed as a mask. One input char then
+ * costs a class lookup plus an OR of the masks of the active states.
+ *
+ * <p>Automata with at most 64 states keep the active set in a single {@code long}, and
+ * the masks are folded further into one table per class and 8-bit chunk of the active set:
+ * {@code next |= T[class][k][(active >>> 8k) & 0xFF]}, at most eight loads per char
+ * whatever the number of active states. Matching them allocates nothing.
+ *
+ * <p>Larger automata use two {@code long[]} halves per match. {@link #accepts(String)}
+ * allocates them per call; a caller matching many inputs on one thread passes its own
+ * buffer from {@link #newBuffer()} to {@link #accepts(String, long[])} instead.
+ *
+ * <pre>
+ * BitParallelNfa matcher = BitParallelNfa.of(ndfa);
+ * long[] buffer = matcher.newBuffer();
+ * for (String line : lines) {
+ *   boolean ok = matcher.accepts(line, buffer);
+ * }
+ * </pre>
+ */
+public abstract sealed class BitParallelNfa implements Automaton
+    permits BitParallelNfa.Word, BitParallelNfa.Words {
+
+  final AlphabetPartition partition;
+  final int stateCount;
+
+  private BitParallelNfa(AlphabetPartition partition, int stateCount) {
+    this.partition = partition;
+    this.stateCount = stateCount;
+  }
+
+  public static BitParallelNfa of(Ndfa ndfa) {
+    // State 0 is the start state; every name mentioned anywhere gets an index.
+    Map<String, Integer> index = new LinkedHashMap<>();
+    index.put(ndfa.getStartState(), 0);
+    for (String state : new TreeSet<>(ndfa.getStates())) {
+      index.putIfAbsent(state, index.size());
+    }
+    for (Map.Entry<String, Map<Character, Set<String>>> e : ndfa.getDelta().entrySet()) {
+      index.putIfAbsent(e.getKey(), index.size());
+      for (Set<String> targets : e.getValue().values()) {
+        for (String target : new TreeSet<>(targets)) {
+          index.putIfAbsent(target, index.size());
+        }
+      }
+    }
+    for (Map.Entry<String, Set<String>> e : ndfa.getEpsilonTransitions().entrySet()) {
+      index.putIfAbsent(e.getKey(), index.size());
+      for (String target : new TreeSet<>(e.getValue())) {
+        index.putIfAbsent(target, index.size());
+      }
+    }
+    int n = index.size();
+    int words = (n + 63) >>> 6;
+
+    long[][] closures = new long[n][];
+    for (Map.Entry<String, Integer> e : index.entrySet()) {
+      closures[e.getValue()] = mask(ndfa.epsilonClosure(Set.of(e.getKey())), index, words);
+    }
+
+    // One label per (state, target) pair: the chars leading from one to the other.
+    List<Integer> labelSources = new ArrayList<>();
+    List<Integer> labelTargets = new ArrayList<>();
+    List<List<CharRange>> labels = new ArrayList<>();
+    for (Map.Entry<String, Map<Character, Set<String>>> e : ndfa.getDelta().entrySet()) {
+      int from = index.get(e.getKey());
+      Map<Integer, List<CharRange>> byTarget = new HashMap<>();
+      for (Map.Entry<Character, Set<String>> t : e.getValue().entrySet()) {
+        for (String target : t.getValue()) {
+          byTarget.computeIfAbsent(index.get(target), k -> new ArrayList<>())
+              .add(CharRange.of(t.getKey()));
+        }
+      }
+      for (Map.Entry<Integer, List<CharRange>> t : byTarget.entrySet()) {
+        labelSources.add(from);
+        labelTargets.add(t.getKey());
+        labels.add(t.getValue());
+      }
+    }
+    AlphabetPartition partition = AlphabetPartition.of(labels);
+
+    // successors[(class * n + state) * words + w]
+    long[] successors = new long[partition.classCount() * n * words];
+    for (int l = 0; l < labels.size(); l++) {
+      int from = labelSources.get(l);
+      long[] to = closures[labelTargets.get(l)];
+      BitSet classes = partition.classesIn(labels.get(l));
+      for (int c = classes.nextSetBit(0); c >= 0; c = classes.nextSetBit(c + 1)) {
+        int base = (c * n + from) * words;
+        for (int w = 0; w < words; w++) {
+          successors[base + w] |= to[w];
+        }
+      }
+    }
+
+    long[] accepting = mask(ndfa.getFinalStates(), index, words);
+    long[] initial = closures[0];
+    if (words == 1) {
+      return new Word(partition, n, chunkTables(successors, partition.classCount(), n),
+          initial[0], accepting[0]);
+    }
+    return new Words(partition, n, words, successors, initial, accepting);
+  }
+
+  /**
+   * Folds per-state masks of an automaton of at most 64 states into
+   * {@code table[((class * chunks) + k) * 256 + b]}: the union of the successors of the
+   * states whose bits in chunk {@code k} of the active set are {@code b}.
+   */
+  private static long[] chunkTables(long[] successors, int classes, int n) {
+    int chunks = (n + 7) >>> 3;
+    long[] table = new long[classes * chunks * 256];
+    for (int c = 0; c < classes; c++) {
+      for (int k = 0; k < chunks; k++) {
+        int base = (c * chunks + k) * 256;
+        for (int b = 1; b < 256; b++) {
+          int state = (k << 3) + Integer.numberOfTrailingZeros(b);
+          long own = state < n ? successors[c * n + state] : 0L;
+          table[base + b] = table[base + (b & (b - 1))] | own; // b without its lowest bit, plus that bit
+        }
+      }
+    }
+    return table;
+  }
+
+  private static long[] mask(Collection<String> states, Map<String, Integer> index, int words) {
+    long[] bits = new long[words];
+    for (String state : states) {
+      Integer i = index.get(state);
+      if (i != null) {
+        bits[i >>> 6] |= 1L << i;
+      }
+    }
+    return bits;
+  }
+
+  public int stateCount() {
+    return stateCount;
+  }
+
+  /** Scratch for {@link #accepts(String, long[])}; reusable across calls on one thread. */
+  public abstract long[] newBuffer();
+
+  /** Same as {@link #accepts(String)}, using {@code buffer} from {@link #newBuffer()} as scratch. */
+  public abstract boolean accepts(String input, long[] buffer);
+
+  /** Up to 64 states: the active set is one {@code long}. */
+  static final class Word extends BitParallelNfa {
+    private static final long[] NO_BUFFER = new long[0];
+
+    private final long[] table; // [(class * chunks + k) * 256 + byte]
+    private final int chunks;
+    private final long initial;
+    private final long accepting;
+
+    private Word(AlphabetPartition partition, int stateCount, long[] table,
+                 long initial, long accepting) {
+      super(partition, stateCount);
+      this.table = table;
+      this.chunks = (stateCount + 7) >>> 3;
+      this.initial = initial;
+      this.accepting = accepting;
+    }
+
+    @Override
+    public long[] newBuffer() {
+      return NO_BUFFER;
+    }
+
+    @Override
+    public boolean accepts(String input, long[] buffer) {
+      return accepts(input);
+    }
+
+    @Override
+    public boolean accepts(String input) {
+      long active = initial;
+      if (Instrumentation.ENABLED) {
+        Instrumentation.recordMatch(input.length());
+      }
+      for (int i = 0; i < input.length() && active != 0; i++) {
+        int offset = partition.classOf(input.charAt(i)) * chunks * 256;
+        long next = 0;
+        for (long rest = active; rest != 0; rest >>>= 8, offset += 256) {
+          next |= table[offset + (int) (rest & 0xFF)];
+        }
+        active = next;
+      }
+      return (active & accepting) != 0;
+    }
+  }
+
+  /** More than 64 states: the active set spans several {@code long}s. */
+  static final class Words extends BitParallelNfa {
+    private final int words;
+    private final long[] successors; // [(class * n + state) * words + w]
+    private final long[] initial;
+    private final long[] accepting;
+
+    private Words(AlphabetPartition partition, int stateCount, int words, long[] successors,
+                  long[] initial, long[] accepting) {
+      super(partition, stateCount);
+      this.words = words;
+      this.successors = successors;
+      this.initial = initial;
+      this.accepting = accepting;
+    }
+
+    /** Two halves: the current set and the next one, swapped per char. */
+    @Override
+    public long[] newBuffer() {
+      return new long[2 * words];
+    }
+
+    /** Allocates a fresh buffer; see {@link #accepts(String, long[])}. */
+    @Override
+    public boolean accepts(String input) {
+      return accepts(input, newBuffer());
+    }
+
+    @Override
+    public boolean accepts(String input, long[] sets) {
+      if (Instrumentation.ENABLED) {
+        Instrumentation.recordMatch(input.length());
+      }
+      System.arraycopy(initial, 0, sets, 0, words);
+      int current = 0;
+      boolean alive = true;
+      for (int i = 0; i < input.length() && alive; i++) {
+        int next = words - current;
+        Arrays.fill(sets, next, next + words, 0L);
+        int classBase = partition.classOf(input.charAt(i)) * stateCount;
+        for (int w = 0; w < words; w++) {
+          for (long rest = sets[current + w]; rest != 0; rest &= rest - 1) {
+            int base = (classBase + (w << 6) + Long.numberOfTrailingZeros(rest)) * words;
+            for (int v = 0; v < words; v++) {
+              sets[next + v] |= successors[base + v];
+            }
+          }
+        }
+        alive = false;
+        for (int v = 0; v < words; v++) {
+          alive |= sets[next + v] != 0;
+        }
+        current = next;
+      }
+      for (int w = 0; w < words; w++) {
+        if ((sets[current + w] & accepting[w]) != 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
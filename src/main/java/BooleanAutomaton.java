@@ -0,0 +1,256 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.function.BinaryOperator;
+import instrumentation.Instrumentation;
+
+/**
+ * Boolean combination (intersection, union, difference, complement) of DFAs that is
+ * never materialised. A product state is the tuple of the operands' current states,
+ * computed on the fly; a missing transition leads to an implicit dead state (-1),
+ * which is what makes complement work on partial DFAs.
+ *
+ * <pre>
+ * BooleanAutomaton aMinusB = BooleanAutomaton.of(a).minus(BooleanAutomaton.of(b));
+ * Optional&lt;String&gt; witness = aMinusB.shortestWord(); // empty iff L(a) ⊆ L(b)
+ * </pre>
+ */
+public final class BooleanAutomaton implements Automaton {
+
+  private static final int DEAD = -1;
+
+  private final DfaTable[] operands;
+  private final Formula formula;
+
+  private BooleanAutomaton(DfaTable[] operands, Formula formula) {
+    this.operands = operands;
+    this.formula = formula;
+  }
+
+  public static BooleanAutomaton of(FiniteAutomaton fa) {
+    return new BooleanAutomaton(new DfaTable[] {DfaTable.from(fa)}, new Leaf(0));
+  }
+
+  public BooleanAutomaton and(BooleanAutomaton other) {
+    return combine(other, And::new);
+  }
+
+  public BooleanAutomaton or(BooleanAutomaton other) {
+    return combine(other, Or::new);
+  }
+
+  public BooleanAutomaton minus(BooleanAutomaton other) {
+    return combine(other, (a, b) -> new And(a, new Not(b)));
+  }
+
+  /** Complement with respect to all strings over {@code char}. */
+  public BooleanAutomaton not() {
+    return new BooleanAutomaton(operands, new Not(formula));
+  }
+
+  private BooleanAutomaton combine(BooleanAutomaton other,
+                                   BinaryOperator<Formula> op) {
+    DfaTable[] merged = Arrays.copyOf(operands, operands.length + other.operands.length);
+    System.arraycopy(other.operands, 0, merged, operands.length, other.operands.length);
+    return new BooleanAutomaton(merged, op.apply(formula, other.formula.shift(operands.length)));
+  }
+
+  /** Shortest word in L(a) \ L(b), or empty if L(a) ⊆ L(b). */
+  public static Optional<String> inclusionCounterexample(FiniteAutomaton a, FiniteAutomaton b) {
+    return of(a).minus(of(b)).shortestWord();
+  }
+
+  /**
+   * Runs every operand side by side over the input and combines their verdicts.
+   * Stops reading early once all operands are in their dead state.
+   */
+  @Override
+  public boolean accepts(String input) {
+    if (Instrumentation.ENABLED) {
+      Instrumentation.recordMatch(input.length());
+    }
+    int[] states = new int[operands.length];
+    int alive = operands.length;
+    for (int i = 0; i < input.length() && alive > 0; i++) {
+      char c = input.charAt(i);
+      for (int k = 0; k < operands.length; k++) {
+        if (states[k] == DEAD) {
+          continue;
+        }
+        int s = operands[k].symbolIndex(c);
+        states[k] = s < 0 ? DEAD : operands[k].next(states[k], s);
+        if (states[k] == DEAD) {
+          alive--;
+        }
+      }
+    }
+    return isAccepting(states);
+  }
+
+  public boolean isEmpty() {
+    return shortestWord().isEmpty();
+  }
+
+  /**
+   * Breadth-first search over reachable product states, stopping at the first accepting one.
+   * Only the visited part of the product is ever built, and the returned word is a shortest
+   * one in the language. The all-dead state is not expanded when it is rejecting, since
+   * nothing reachable from it can accept.
+   */
+  public Optional<String> shortestWord() {
+    char[] symbols = symbols();
+    int[] allDead = new int[operands.length];
+    Arrays.fill(allDead, DEAD);
+    boolean deadAccepts = isAccepting(allDead);
+
+    Map<Key, Integer> visited = new HashMap<>();
+    List<int[]> parent = new ArrayList<>(); // {parent index, symbol}
+    Queue<int[]> queue = new ArrayDeque<>();
+
+    int[] start = new int[operands.length];
+    for (int k = 0; k < operands.length; k++) {
+      start[k] = operands[k].start();
+    }
+    visited.put(new Key(start), 0);
+    parent.add(null);
+    if (isAccepting(start)) {
+      return Optional.of("");
+    }
+    queue.add(start);
+
+    while (!queue.isEmpty()) {
+      int[] current = queue.poll();
+      int currentIndex = visited.get(new Key(current));
+      if (!deadAccepts && Arrays.equals(current, allDead)) {
+        continue;
+      }
+      for (char c : symbols) {
+        int[] next = new int[operands.length];
+        for (int k = 0; k < operands.length; k++) {
+          int s = current[k] == DEAD ? -1 : operands[k].symbolIndex(c);
+          next[k] = s < 0 ? DEAD : operands[k].next(current[k], s);
+        }
+        Key key = new Key(next);
+        if (visited.containsKey(key)) {
+          continue;
+        }
+        visited.put(key, parent.size());
+        parent.add(new int[] {currentIndex, c});
+        if (isAccepting(next)) {
+          return Optional.of(pathTo(parent, parent.size() - 1));
+        }
+        queue.add(next);
+      }
+    }
+    return Optional.empty();
+  }
+
+  private static String pathTo(List<int[]> parent, int index) {
+    StringBuilder word = new StringBuilder();
+    for (int[] p = parent.get(index); p != null; p = parent.get(p[0])) {
+      word.append((char) p[1]);
+    }
+    return word.reverse().toString();
+  }
+
+  /**
+   * Union of the operands' alphabets, plus one representative of every other char
+   * (all of which send every operand to its dead state).
+   */
+  private char[] symbols() {
+    TreeSet<Character> union = new TreeSet<>();
+    for (DfaTable t : operands) {
+      for (int i = 0; i < t.symbolCount(); i++) {
+        union.add(t.symbolAt(i));
+      }
+    }
+    for (char c = 'a'; c != Character.MAX_VALUE; c++) {
+      if (!union.contains(c)) {
+        union.add(c);
+        break;
+      }
+    }
+    char[] result = new char[union.size()];
+    int i = 0;
+    for (char c : union) {
+      result[i++] = c;
+    }
+    return result;
+  }
+
+  private boolean isAccepting(int[] states) {
+    return formula.evaluate(operands, states);
+  }
+
+  private record Key(int[] states) {
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key other && Arrays.equals(states, other.states);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(states);
+    }
+  }
+
+  private sealed interface Formula permits Leaf, Not, And, Or {
+    boolean evaluate(DfaTable[] operands, int[] states);
+
+    Formula shift(int offset);
+  }
+
+  private record Leaf(int index) implements Formula {
+    @Override
+    public boolean evaluate(DfaTable[] operands, int[] states) {
+      return states[index] != DEAD && operands[index].isAccepting(states[index]);
+    }
+
+    @Override
+    public Formula shift(int offset) {
+      return new Leaf(index + offset);
+    }
+  }
+
+  private record Not(Formula operand) implements Formula {
+    @Override
+    public boolean evaluate(DfaTable[] operands, int[] states) {
+      return !operand.evaluate(operands, states);
+    }
+
+    @Override
+    public Formula shift(int offset) {
+      return new Not(operand.shift(offset));
+    }
+  }
+
+  private record And(Formula left, Formula right) implements Formula {
+    @Override
+    public boolean evaluate(DfaTable[] operands, int[] states) {
+      return left.evaluate(operands, states) && right.evaluate(operands, states);
+    }
+
+    @Override
+    public Formula shift(int offset) {
+      return new And(left.shift(offset), right.shift(offset));
+    }
+  }
+
+  private record Or(Formula left, Formula right) implements Formula {
+    @Override
+    public boolean evaluate(DfaTable[] operands, int[] states) {
+      return left.evaluate(operands, states) || right.evaluate(operands, states);
+    }
+
+    @Override
+    public Formula shift(int offset) {
+      return new Or(left.shift(offset), right.shift(offset));
+    }
+  }
+}
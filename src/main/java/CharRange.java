@@ -0,0 +1,41 @@
+/**
+ * Inclusive range of chars used as a transition label, e.g. {@code [a-z]}.
+ */
+public record CharRange(char first, char last) implements Comparable<CharRange> {
+
+  public CharRange {
+    if (last < first) {
+      throw new IllegalArgumentException("Empty range: " + first + "-" + last);
+    }
+  }
+
+  public static CharRange of(char c) {
+    return new CharRange(c, c);
+  }
+
+  public static CharRange of(char first, char last) {
+    return new CharRange(first, last);
+  }
+
+  public boolean contains(char c) {
+    return c >= first && c <= last;
+  }
+
+  public boolean overlaps(CharRange other) {
+    return first <= other.last && other.first <= last;
+  }
+
+  public int size() {
+    return last - first + 1;
+  }
+
+  @Override
+  public int compareTo(CharRange other) {
+    return first != other.first ? Character.compare(first, other.first) : Character.compare(last, other.last);
+  }
+
+  @Override
+  public String toString() {
+    return first == last ? String.valueOf(first) : first + "-" + last;
+  }
+}
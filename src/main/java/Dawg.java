@@ -0,0 +1,147 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import instrumentation.Instrumentation;
+
+/**
+ * Minimal acyclic DFA over a word list, as produced by {@link DawgBuilder}.
+ * Stored in compressed sparse-row form: the outgoing edges of state q are
+ * {@code labels[first[q] .. first[q+1])}, sorted, with matching {@code targets},
+ * so a step is a binary search over a handful of chars and no per-state objects exist.
+ */
+public final class Dawg implements Automaton {
+
+  private final int[] first;
+  private final char[] labels;
+  private final int[] targets;
+  private final boolean[] finals;
+
+  private Dawg(int[] first, char[] labels, int[] targets, boolean[] finals) {
+    this.first = first;
+    this.labels = labels;
+    this.targets = targets;
+    this.finals = finals;
+  }
+
+  static Dawg freeze(DawgBuilder.Node root) {
+    Map<DawgBuilder.Node, Integer> ids = new IdentityHashMap<>();
+    List<DawgBuilder.Node> order = new ArrayList<>();
+    ids.put(root, 0);
+    order.add(root);
+    int edgeCount = 0;
+    for (int i = 0; i < order.size(); i++) {
+      DawgBuilder.Node node = order.get(i);
+      edgeCount += node.labels.length;
+      for (DawgBuilder.Node t : node.targets) {
+        if (!ids.containsKey(t)) {
+          ids.put(t, order.size());
+          order.add(t);
+        }
+      }
+    }
+
+    int n = order.size();
+    int[] first = new int[n + 1];
+    char[] labels = new char[edgeCount];
+    int[] targets = new int[edgeCount];
+    boolean[] finals = new boolean[n];
+    int e = 0;
+    for (int q = 0; q < n; q++) {
+      DawgBuilder.Node node = order.get(q);
+      first[q] = e;
+      finals[q] = node.isFinal;
+      for (int i = 0; i < node.labels.length; i++) {
+        labels[e] = node.labels[i];
+        targets[e] = ids.get(node.targets[i]);
+        e++;
+      }
+    }
+    first[n] = e;
+    return new Dawg(first, labels, targets, finals);
+  }
+
+  public int stateCount() {
+    return finals.length;
+  }
+
+  public int transitionCount() {
+    return labels.length;
+  }
+
+  public boolean contains(String word) {
+    int state = walk(word);
+    return state >= 0 && finals[state];
+  }
+
+  @Override
+  public boolean accepts(String input) {
+    if (Instrumentation.ENABLED) {
+      Instrumentation.recordMatch(input.length());
+    }
+    return contains(input);
+  }
+
+  /** Whether any word in the set starts with the prefix. */
+  public boolean hasPrefix(String prefix) {
+    return walk(prefix) >= 0;
+  }
+
+  /** Up to {@code limit} words starting with the prefix, in sorted order. */
+  public List<String> complete(String prefix, int limit) {
+    List<String> result = new ArrayList<>();
+    int state = walk(prefix);
+    if (state < 0 || limit <= 0) {
+      return result;
+    }
+    StringBuilder word = new StringBuilder(prefix);
+    collect(state, word, result, limit);
+    return result;
+  }
+
+  private void collect(int state, StringBuilder word, List<String> result, int limit) {
+    if (finals[state]) {
+      result.add(word.toString());
+    }
+    for (int e = first[state]; e < first[state + 1] && result.size() < limit; e++) {
+      word.append(labels[e]);
+      collect(targets[e], word, result, limit);
+      word.setLength(word.length() - 1);
+    }
+  }
+
+  private int walk(String s) {
+    int state = 0;
+    for (int i = 0; i < s.length(); i++) {
+      int e = Arrays.binarySearch(labels, first[state], first[state + 1], s.charAt(i));
+      if (e < 0) {
+        return -1;
+      }
+      state = targets[e];
+    }
+    return state;
+  }
+
+  /** Map-based form with states named q0..qn-1 (q0 is the start state). */
+  public FiniteAutomaton toFiniteAutomaton() {
+    Set<String> states = new HashSet<>();
+    Set<Character> alphabet = new HashSet<>();
+    Map<String, Map<Character, String>> delta = new HashMap<>();
+    Set<String> finalStates = new HashSet<>();
+    for (int q = 0; q < finals.length; q++) {
+      states.add("q" + q);
+      if (finals[q]) {
+        finalStates.add("q" + q);
+      }
+      for (int e = first[q]; e < first[q + 1]; e++) {
+        alphabet.add(labels[e]);
+        delta.computeIfAbsent("q" + q, k -> new HashMap<>()).put(labels[e], "q" + targets[e]);
+      }
+    }
+    return new FiniteAutomaton(states, alphabet, delta, "q0", finalStates);
+  }
+}
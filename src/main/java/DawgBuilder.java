@@ -0,0 +1,150 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the minimal acyclic DFA (DAWG) of a sorted word list incrementally, using
+ * Daciuk et al.'s algorithm for sorted input. Only the path of the most recently added
+ * word is still mutable; everything behind it is minimised as soon as the next word
+ * diverges from it, by looking it up in a register of already minimal states. Peak
+ * memory is therefore close to the size of the final automaton rather than that of a trie.
+ *
+ * <pre>
+ * DawgBuilder builder = new DawgBuilder();
+ * for (String word : sortedWords) {
+ *   builder.add(word);
+ * }
+ * Dawg dawg = builder.build();
+ * </pre>
+ */
+public class DawgBuilder {
+
+  private final Node root = new Node();
+  private final Map<Node, Node> register = new HashMap<>();
+  private final List<Node> path = new ArrayList<>(); // path[i] = node after i chars of previous word
+  private String previous = "";
+  private boolean built;
+
+  public DawgBuilder() {
+    path.add(root);
+  }
+
+  /**
+   * Adds a word; words must arrive in strictly increasing {@link String#compareTo} order
+   * (a repeated word is ignored).
+   */
+  public DawgBuilder add(String word) {
+    if (built) {
+      throw new IllegalStateException("build() already called");
+    }
+    int cmp = word.compareTo(previous);
+    if (cmp < 0) {
+      throw new IllegalArgumentException(
+          "Words must be sorted: \"" + word + "\" after \"" + previous + "\"");
+    }
+    if (cmp == 0 && (root.isFinal || !word.isEmpty())) {
+      return this; // duplicate; "" is only a duplicate once it has been added
+    }
+
+    int common = 0;
+    int max = Math.min(word.length(), previous.length());
+    while (common < max && word.charAt(common) == previous.charAt(common)) {
+      common++;
+    }
+    minimize(common);
+
+    Node node = path.get(common);
+    for (int i = common; i < word.length(); i++) {
+      Node child = new Node();
+      node.append(word.charAt(i), child);
+      path.add(child);
+      node = child;
+    }
+    node.isFinal = true;
+    previous = word;
+    return this;
+  }
+
+  /** Minimises the remaining path and freezes the automaton into its compact form. */
+  public Dawg build() {
+    if (!built) {
+      minimize(0);
+      built = true;
+    }
+    return Dawg.freeze(root);
+  }
+
+  /** Registers (or replaces with a registered equivalent) every path node deeper than {@code downTo}. */
+  private void minimize(int downTo) {
+    for (int depth = path.size() - 1; depth > downTo; depth--) {
+      Node child = path.get(depth);
+      Node parent = path.get(depth - 1);
+      Node existing = register.putIfAbsent(child, child);
+      if (existing != null) {
+        parent.replaceLastChild(existing);
+      } else {
+        child.frozen = true;
+      }
+      path.remove(depth);
+    }
+  }
+
+  /**
+   * Mutable state while on the current path; frozen and hashed structurally once registered.
+   * Children are already registered when a node is hashed, so child identity is enough.
+   */
+  static final class Node {
+    char[] labels = new char[0];
+    Node[] targets = new Node[0];
+    boolean isFinal;
+    boolean frozen;
+    private int hash;
+
+    void append(char label, Node target) {
+      int n = labels.length;
+      labels = Arrays.copyOf(labels, n + 1);
+      targets = Arrays.copyOf(targets, n + 1);
+      labels[n] = label;
+      targets[n] = target;
+    }
+
+    void replaceLastChild(Node target) {
+      targets[targets.length - 1] = target;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Node other) || isFinal != other.isFinal
+          || !Arrays.equals(labels, other.labels)) {
+        return false;
+      }
+      for (int i = 0; i < targets.length; i++) {
+        if (targets[i] != other.targets[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      if (frozen && hash != 0) {
+        return hash;
+      }
+      int h = isFinal ? 1 : 0;
+      for (int i = 0; i < labels.length; i++) {
+        h = 31 * (31 * h + labels[i]) + System.identityHashCode(targets[i]);
+      }
+      h = h == 0 ? 1 : h;
+      if (frozen) {
+        hash = h;
+      }
+      return h;
+    }
+  }
+}
@@ -0,0 +1,169 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Versioned binary file format for a {@link DfaTable}.
+ *
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "LFAD"
+ *      4     2  version
+ *      6     2  flags (reserved, 0)
+ *      8     4  state count n
+ *     12     4  symbol count k
+ *     16     4  start state
+ *     20     4  CRC32C of bytes 0-19 followed by every byte from offset 24 to the end
+ *     24    2k  sorted symbols (UTF-16 code units), padded to 4 bytes
+ *      .   4nk  transition table, row-major by state, -1 = no transition
+ *      .     .  padding to 8 bytes
+ *      .   8w   accept bitmap, w = ceil(n / 64) words, bit q set iff q is final
+ * </pre>
+ * All values are big-endian. Version 2 extended the checksum to the header; version 1
+ * files, whose checksum covered only the body, are rejected.
+ */
+public final class DfaBinaryFormat {
+
+  static final int MAGIC = 0x4C464144; // "LFAD"
+  static final short VERSION = 2;
+  static final int HEADER_SIZE = 24;
+
+  static final int OFFSET_VERSION = 4;
+  static final int OFFSET_STATES = 8;
+  static final int OFFSET_SYMBOLS = 12;
+  static final int OFFSET_START = 16;
+  static final int OFFSET_CHECKSUM = 20;
+
+  private DfaBinaryFormat() {
+  }
+
+  public static void write(FiniteAutomaton fa, Path file) throws IOException {
+    write(DfaTable.from(fa), file);
+  }
+
+  /** Writes the table through a read-write mapping of the target file. */
+  public static void write(DfaTable dfa, Path file) throws IOException {
+    int n = dfa.stateCount();
+    int k = dfa.symbolCount();
+    Layout layout = new Layout(n, k);
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, layout.totalSize);
+      out.putInt(0, MAGIC);
+      out.putShort(OFFSET_VERSION, VERSION);
+      out.putShort(OFFSET_VERSION + 2, (short) 0);
+      out.putInt(OFFSET_STATES, n);
+      out.putInt(OFFSET_SYMBOLS, k);
+      out.putInt(OFFSET_START, dfa.start());
+
+      char[] symbols = dfa.symbols();
+      for (int i = 0; i < k; i++) {
+        out.putChar(layout.symbolsOffset + 2 * i, symbols[i]);
+      }
+      int[] table = dfa.transitions();
+      for (int i = 0; i < table.length; i++) {
+        out.putInt(layout.tableOffset + 4 * i, table[i]);
+      }
+      long[] accepting = dfa.acceptingBits();
+      for (int i = 0; i < accepting.length; i++) {
+        out.putLong(layout.acceptOffset + 8 * i, accepting[i]);
+      }
+
+      out.putInt(OFFSET_CHECKSUM, checksum(out, layout.totalSize));
+      out.force();
+    }
+  }
+
+  /**
+   * Maps the file read-only and validates its header, checksum, start state and every
+   * transition target, so a corrupt file fails here instead of changing the language.
+   */
+  public static MappedDfa map(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+        throw new IOException("Not a DFA file (size " + size + "): " + file);
+      }
+      MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      if (in.getInt(0) != MAGIC) {
+        throw new IOException("Not a DFA file (bad magic): " + file);
+      }
+      short version = in.getShort(OFFSET_VERSION);
+      if (version != VERSION) {
+        throw new IOException("Unsupported DFA file version " + version + ": " + file);
+      }
+      int n = in.getInt(OFFSET_STATES);
+      int k = in.getInt(OFFSET_SYMBOLS);
+      int start = in.getInt(OFFSET_START);
+      if (in.getShort(OFFSET_VERSION + 2) != 0 || n < 0 || k < 0
+          || start < 0 || start >= Math.max(n, 1)) {
+        throw new IOException("Corrupt DFA header: " + file);
+      }
+      Layout layout;
+      try {
+        layout = new Layout(n, k);
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Corrupt DFA header (" + e.getMessage() + "): " + file);
+      }
+      if (layout.totalSize != size) {
+        throw new IOException("Corrupt DFA file (expected " + layout.totalSize
+            + " bytes, found " + size + "): " + file);
+      }
+      if (checksum(in, layout.totalSize) != in.getInt(OFFSET_CHECKSUM)) {
+        throw new IOException("Corrupt DFA file (checksum mismatch): " + file);
+      }
+      for (int i = 1; i < k; i++) {
+        if (in.getChar(layout.symbolsOffset + 2 * (i - 1)) >= in.getChar(layout.symbolsOffset + 2 * i)) {
+          throw new IOException("Corrupt DFA file (symbols not sorted): " + file);
+        }
+      }
+      for (int i = 0; i < n * k; i++) {
+        int target = in.getInt(layout.tableOffset + 4 * i);
+        if (target < -1 || target >= n) {
+          throw new IOException("Corrupt DFA file (transition target " + target + " out of range): " + file);
+        }
+      }
+      return new MappedDfa(in, n, k, start, layout.symbolsOffset, layout.tableOffset, layout.acceptOffset);
+    }
+  }
+
+  private static int checksum(ByteBuffer buffer, int totalSize) {
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.slice(0, OFFSET_CHECKSUM));
+    crc.update(buffer.slice(HEADER_SIZE, totalSize - HEADER_SIZE));
+    return (int) crc.getValue();
+  }
+
+  private static final class Layout {
+    final int symbolsOffset;
+    final int tableOffset;
+    final int acceptOffset;
+    final int totalSize;
+
+    Layout(int states, int symbols) {
+      symbolsOffset = HEADER_SIZE;
+      tableOffset = align(symbolsOffset + 2 * symbols, 4);
+      long acceptStart = align(tableOffset + 4L * states * symbols, 8);
+      long total = acceptStart + 8L * ((states + 63) >>> 6);
+      if (total > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("DFA too large for the binary format: "
+            + states + " states x " + symbols + " symbols");
+      }
+      acceptOffset = (int) acceptStart;
+      totalSize = (int) total;
+    }
+
+    private static int align(int offset, int alignment) {
+      return (offset + alignment - 1) & -alignment;
+    }
+
+    private static long align(long offset, int alignment) {
+      return (offset + alignment - 1) & -alignment;
+    }
+  }
+}
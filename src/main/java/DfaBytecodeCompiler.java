@@ -0,0 +1,202 @@
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.CodeBuilder;
+import java.lang.classfile.Label;
+import java.lang.classfile.instruction.SwitchCase;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import instrumentation.Instrumentation;
+
+/**
+ * Compiles a {@link FiniteAutomaton} into a hidden class implementing {@link Automaton}.
+ * Each DFA state becomes a block of straight-line bytecode ending in a
+ * {@code tableswitch} (dense alphabets) or {@code lookupswitch} (sparse alphabets)
+ * on the next input char, so the JIT sees plain branches instead of table loads.
+ * Automata above the state limit, or whose code would not fit a single method,
+ * fall back to the table-driven {@link DfaTable}.
+ */
+public class DfaBytecodeCompiler {
+
+  /**
+   * Default state limit. Wide alphabets reach the 64 KB code limit well before it: a complete
+   * DFA over 26 letters stops fitting at about 500 states, and {@link #compile} falls back then too.
+   */
+  public static final int DEFAULT_MAX_STATES = 1024;
+
+  private static final ClassDesc CD_AUTOMATON = ClassDesc.of("Automaton");
+  private static final MethodTypeDesc MTD_ACCEPTS =
+      MethodTypeDesc.of(ConstantDescs.CD_boolean, ConstantDescs.CD_String);
+  private static final MethodTypeDesc MTD_LENGTH = MethodTypeDesc.of(ConstantDescs.CD_int);
+  private static final MethodTypeDesc MTD_CHAR_AT =
+      MethodTypeDesc.of(ConstantDescs.CD_char, ConstantDescs.CD_int);
+  private static final ClassDesc CD_INSTRUMENTATION = ClassDesc.of("instrumentation.Instrumentation");
+  private static final MethodTypeDesc MTD_RECORD_MATCH =
+      MethodTypeDesc.of(ConstantDescs.CD_void, ConstantDescs.CD_int);
+
+  // Local variable slots of the generated accepts(String) method.
+  private static final int SLOT_INPUT = 1;
+  private static final int SLOT_INDEX = 2;
+  private static final int SLOT_LENGTH = 3;
+
+  /** JVM limit on the bytecode length of one method (JVMS 4.7.3). */
+  static final int MAX_CODE_LENGTH = 65535;
+
+  private final int maxStates;
+
+  public DfaBytecodeCompiler() {
+    this(DEFAULT_MAX_STATES);
+  }
+
+  public DfaBytecodeCompiler(int maxStates) {
+    this.maxStates = maxStates;
+  }
+
+  /**
+   * Returns a compiled matcher, or the table engine if the automaton has more than
+   * {@code maxStates} reachable states or the generated code exceeds JVM method limits.
+   */
+  public Automaton compile(FiniteAutomaton fa) {
+    DfaTable table = DfaTable.from(fa);
+    if (table.stateCount() > maxStates || maxCodeLength(table) > MAX_CODE_LENGTH) {
+      return table;
+    }
+    byte[] bytes = generate(table);
+    try {
+      MethodHandles.Lookup hidden = MethodHandles.lookup().defineHiddenClass(bytes, true);
+      return (Automaton) hidden.lookupClass().getConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Failed to define compiled DFA class", e);
+    }
+  }
+
+  /**
+   * Upper bound on the length in bytes of the generated {@code accepts} method, following
+   * {@link #generateAccepts} instruction by instruction with worst-case switch padding and
+   * wide jumps, so {@link #compile} can fall back before generating code that cannot fit.
+   */
+  static int maxCodeLength(DfaTable table) {
+    long length = 12 + 2; // prologue ending in a goto, shared reject block
+    if (Instrumentation.ENABLED) {
+      length += 4; // iload, invokestatic recordMatch
+    }
+    for (int q = 0; q < table.stateCount(); q++) {
+      length += 15; // end-of-input test and return, charAt(i++)
+      int low = -1;
+      int high = -1;
+      int count = 0;
+      for (int s = 0; s < table.symbolCount(); s++) {
+        if (table.next(q, s) >= 0) {
+          if (count == 0) {
+            low = table.symbolAt(s);
+          }
+          high = table.symbolAt(s);
+          count++;
+        }
+      }
+      if (count == 0) {
+        length += 6; // pop, goto reject
+      } else if (isDense(low, high, count)) {
+        length += 16 + 4L * (high - low + 1);
+      } else {
+        length += 12 + 8L * count;
+      }
+    }
+    return (int) Math.min(length, Integer.MAX_VALUE);
+  }
+
+  /** Generates the class file for the given table; exposed for inspection with javap. */
+  byte[] generate(DfaTable table) {
+    return ClassFile.of().build(ClassDesc.of("CompiledDfa"), cb -> cb
+        .withFlags(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SYNTHETIC)
+        .withSuperclass(ConstantDescs.CD_Object)
+        .withInterfaceSymbols(CD_AUTOMATON)
+        .withMethodBody(ConstantDescs.INIT_NAME, ConstantDescs.MTD_void, ClassFile.ACC_PUBLIC,
+            code -> code
+                .aload(0)
+                .invokespecial(ConstantDescs.CD_Object, ConstantDescs.INIT_NAME, ConstantDescs.MTD_void)
+                .return_())
+        .withMethodBody("accepts", MTD_ACCEPTS, ClassFile.ACC_PUBLIC,
+            code -> generateAccepts(code, table)));
+  }
+
+  /**
+   * Layout of the generated method:
+   * <pre>
+   *   i = 0; n = input.length(); [Instrumentation.recordMatch(n);] goto S0;
+   * Sq:
+   *   if (i >= n) return accepting(q);
+   *   switch (input.charAt(i++)) { case a: goto δ(q,a); ... default: return false; }
+   * </pre>
+   */
+  private static void generateAccepts(CodeBuilder code, DfaTable table) {
+    int n = table.stateCount();
+    Label[] states = new Label[n];
+    for (int q = 0; q < n; q++) {
+      states[q] = code.newLabel();
+    }
+    Label reject = code.newLabel();
+
+    code.iconst_0().istore(SLOT_INDEX)
+        .aload(SLOT_INPUT)
+        .invokevirtual(ConstantDescs.CD_String, "length", MTD_LENGTH)
+        .istore(SLOT_LENGTH);
+    if (Instrumentation.ENABLED) {
+      code.iload(SLOT_LENGTH)
+          .invokestatic(CD_INSTRUMENTATION, "recordMatch", MTD_RECORD_MATCH);
+    }
+    code.goto_(states[table.start()]);
+
+    for (int q = 0; q < n; q++) {
+      Label hasInput = code.newLabel();
+      code.labelBinding(states[q])
+          .iload(SLOT_INDEX)
+          .iload(SLOT_LENGTH)
+          .if_icmplt(hasInput);
+      if (table.isAccepting(q)) {
+        code.iconst_1();
+      } else {
+        code.iconst_0();
+      }
+      code.ireturn();
+
+      code.labelBinding(hasInput)
+          .aload(SLOT_INPUT)
+          .iload(SLOT_INDEX)
+          .invokevirtual(ConstantDescs.CD_String, "charAt", MTD_CHAR_AT)
+          .iinc(SLOT_INDEX, 1);
+
+      List<SwitchCase> cases = new ArrayList<>();
+      for (int s = 0; s < table.symbolCount(); s++) {
+        int to = table.next(q, s);
+        if (to >= 0) {
+          cases.add(SwitchCase.of(table.symbolAt(s), states[to]));
+        }
+      }
+      if (cases.isEmpty()) {
+        code.pop().goto_(reject);
+        continue;
+      }
+      int low = cases.getFirst().caseValue();
+      int high = cases.getLast().caseValue();
+      if (isDense(low, high, cases.size())) {
+        code.tableswitch(low, high, reject, cases);
+      } else {
+        code.lookupswitch(reject, cases);
+      }
+    }
+
+    code.labelBinding(reject)
+        .iconst_0()
+        .ireturn();
+  }
+
+  /** Same heuristic javac uses to choose between tableswitch and lookupswitch. */
+  private static boolean isDense(int low, int high, int count) {
+    long tableCost = 4 + ((long) high - low + 1) + 3L * 3;
+    long lookupCost = 3 + 2L * count + 3L * count;
+    return tableCost <= lookupCost;
+  }
+}
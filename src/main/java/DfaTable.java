@@ -0,0 +1,172 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import instrumentation.Instrumentation;
+
+/**
+ * Flat, table-driven form of a {@link FiniteAutomaton}.
+ * States are numbered 0..n-1 in breadth-first order from the start state (state 0),
+ * symbols are the sorted alphabet, and {@code next[state * symbolCount + symbol]} holds
+ * the target state or -1. States unreachable from the start state are dropped.
+ */
+public final class DfaTable implements Automaton {
+
+  private final char[] symbols;
+  private final int[] next;
+  private final long[] accepting;
+  private final int stateCount;
+
+  DfaTable(char[] symbols, int[] next, long[] accepting, int stateCount) {
+    this.symbols = symbols;
+    this.next = next;
+    this.accepting = accepting;
+    this.stateCount = stateCount;
+  }
+
+  public static DfaTable from(FiniteAutomaton fa) {
+    char[] symbols = new char[fa.getAlphabet().size()];
+    int k = 0;
+    for (Character c : fa.getAlphabet()) {
+      symbols[k++] = c;
+    }
+    Arrays.sort(symbols);
+
+    Map<String, Integer> ids = new HashMap<>();
+    Queue<String> queue = new ArrayDeque<>();
+    ids.put(fa.getStartState(), 0);
+    queue.add(fa.getStartState());
+    int[] table = new int[Math.max(1, fa.getStates().size()) * symbols.length];
+    Arrays.fill(table, -1);
+
+    while (!queue.isEmpty()) {
+      String state = queue.poll();
+      int from = ids.get(state);
+      Map<Character, String> transitions = fa.getDelta().get(state);
+      if (transitions == null) {
+        continue;
+      }
+      for (int s = 0; s < symbols.length; s++) {
+        String target = transitions.get(symbols[s]);
+        if (target == null) {
+          continue;
+        }
+        Integer to = ids.get(target);
+        if (to == null) {
+          to = ids.size();
+          ids.put(target, to);
+          queue.add(target);
+        }
+        int index = from * symbols.length + s;
+        if (index >= table.length) {
+          table = grow(table, index);
+        }
+        table[index] = to;
+      }
+    }
+
+    int n = ids.size();
+    long[] accepting = new long[(n + 63) >>> 6];
+    for (Map.Entry<String, Integer> e : ids.entrySet()) {
+      if (fa.getFinalStates().contains(e.getKey())) {
+        accepting[e.getValue() >>> 6] |= 1L << e.getValue();
+      }
+    }
+    return new DfaTable(symbols, Arrays.copyOf(table, n * symbols.length), accepting, n);
+  }
+
+  private static int[] grow(int[] table, int index) {
+    int[] bigger = Arrays.copyOf(table, Math.max(index + 1, table.length * 2));
+    Arrays.fill(bigger, table.length, bigger.length, -1);
+    return bigger;
+  }
+
+  public int stateCount() {
+    return stateCount;
+  }
+
+  public int symbolCount() {
+    return symbols.length;
+  }
+
+  public char symbolAt(int index) {
+    return symbols[index];
+  }
+
+  /** Column of the symbol, or -1 if it is not in the alphabet. */
+  public int symbolIndex(char c) {
+    int i = Arrays.binarySearch(symbols, c);
+    return i < 0 ? -1 : i;
+  }
+
+  public int start() {
+    return 0;
+  }
+
+  /** Target of the transition by column index, or -1 if there is none. */
+  public int next(int state, int symbolIndex) {
+    return next[state * symbols.length + symbolIndex];
+  }
+
+  public boolean isAccepting(int state) {
+    return (accepting[state >>> 6] & (1L << state)) != 0;
+  }
+
+  @Override
+  public boolean accepts(String input) {
+    if (Instrumentation.ENABLED) {
+      Instrumentation.recordMatch(input.length());
+    }
+    int state = 0;
+    for (int i = 0; i < input.length(); i++) {
+      int s = symbolIndex(input.charAt(i));
+      if (s < 0) {
+        return false;
+      }
+      state = next[state * symbols.length + s];
+      if (state < 0) {
+        return false;
+      }
+    }
+    return isAccepting(state);
+  }
+
+  /** Rebuilds the map-based form, naming states S0..Sn-1. */
+  public FiniteAutomaton toFiniteAutomaton() {
+    Set<String> states = new HashSet<>();
+    Set<Character> alphabet = new HashSet<>();
+    Map<String, Map<Character, String>> delta = new HashMap<>();
+    Set<String> finalStates = new HashSet<>();
+    for (char c : symbols) {
+      alphabet.add(c);
+    }
+    for (int q = 0; q < stateCount; q++) {
+      states.add("S" + q);
+      if (isAccepting(q)) {
+        finalStates.add("S" + q);
+      }
+      for (int s = 0; s < symbols.length; s++) {
+        int to = next(q, s);
+        if (to >= 0) {
+          delta.computeIfAbsent("S" + q, k -> new HashMap<>()).put(symbols[s], "S" + to);
+        }
+      }
+    }
+    return new FiniteAutomaton(states, alphabet, delta, "S0", finalStates);
+  }
+
+  char[] symbols() {
+    return symbols;
+  }
+
+  int[] transitions() {
+    return next;
+  }
+
+  long[] acceptingBits() {
+    return accepting;
+  }
+}
@@ -0,0 +1,249 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Language equivalence of finite automata using the Hopcroft–Karp algorithm:
+ * pairs of states are merged in a union-find structure as they are reached from the
+ * pair of start states, so each state pair is processed at most once and the total
+ * work is near-linear, O(n · |Σ| · α(n)). Pairs are explored breadth-first, so the
+ * distinguishing word returned is a shortest one.
+ *
+ * <p>An {@link Ndfa} is compared against a DFA through on-the-fly subset construction:
+ * only the subsets the search actually reaches are ever built.
+ */
+public class EquivalenceChecker {
+
+  public boolean areEquivalent(FiniteAutomaton a, FiniteAutomaton b) {
+    return distinguishingWord(a, b).isEmpty();
+  }
+
+  public boolean areEquivalent(Ndfa a, FiniteAutomaton b) {
+    return distinguishingWord(a, b).isEmpty();
+  }
+
+  /** A shortest word accepted by exactly one of the automata, or empty if they are equivalent. */
+  public Optional<String> distinguishingWord(FiniteAutomaton a, FiniteAutomaton b) {
+    char[] symbols = union(a.getAlphabet(), b.getAlphabet());
+    return search(new DfaSide(DfaTable.from(a), symbols),
+        new DfaSide(DfaTable.from(b), symbols), symbols);
+  }
+
+  public Optional<String> distinguishingWord(Ndfa a, FiniteAutomaton b) {
+    char[] symbols = union(a.getAlphabet(), b.getAlphabet());
+    return search(new SubsetSide(a, symbols), new DfaSide(DfaTable.from(b), symbols), symbols);
+  }
+
+  private static char[] union(Set<Character> a, Set<Character> b) {
+    TreeSet<Character> all = new TreeSet<>(a);
+    all.addAll(b);
+    char[] result = new char[all.size()];
+    int i = 0;
+    for (char c : all) {
+      result[i++] = c;
+    }
+    return result;
+  }
+
+  private static Optional<String> search(Side left, Side right, char[] symbols) {
+    // Left state s is union-find element 2s, right state s is 2s + 1, so both sides can grow lazily.
+    UnionFind sets = new UnionFind();
+    List<int[]> pairs = new ArrayList<>(); // {left, right, parent pair, symbol index}
+    Queue<Integer> queue = new ArrayDeque<>();
+
+    int p0 = left.start();
+    int q0 = right.start();
+    if (left.isAccepting(p0) != right.isAccepting(q0)) {
+      return Optional.of("");
+    }
+    sets.union(2 * p0, 2 * q0 + 1);
+    pairs.add(new int[] {p0, q0, -1, -1});
+    queue.add(0);
+
+    while (!queue.isEmpty()) {
+      int index = queue.poll();
+      int[] pair = pairs.get(index);
+      for (int s = 0; s < symbols.length; s++) {
+        int p = left.next(pair[0], s);
+        int q = right.next(pair[1], s);
+        if (!sets.union(2 * p, 2 * q + 1)) {
+          continue; // already known to be equivalent
+        }
+        pairs.add(new int[] {p, q, index, s});
+        if (left.isAccepting(p) != right.isAccepting(q)) {
+          return Optional.of(wordTo(pairs, pairs.size() - 1, symbols));
+        }
+        queue.add(pairs.size() - 1);
+      }
+    }
+    return Optional.empty();
+  }
+
+  private static String wordTo(List<int[]> pairs, int index, char[] symbols) {
+    StringBuilder word = new StringBuilder();
+    for (int[] pair = pairs.get(index); pair[2] >= 0; pair = pairs.get(pair[2])) {
+      word.append(symbols[pair[3]]);
+    }
+    return word.reverse().toString();
+  }
+
+  /** Deterministic view of one automaton, total over the symbol indices via an explicit dead state. */
+  private interface Side {
+    int start();
+
+    int next(int state, int symbolIndex);
+
+    boolean isAccepting(int state);
+  }
+
+  private static final class DfaSide implements Side {
+    private final DfaTable table;
+    private final int[] columns; // union symbol index -> table column, or -1
+    private final int dead;
+
+    DfaSide(DfaTable table, char[] symbols) {
+      this.table = table;
+      this.columns = new int[symbols.length];
+      for (int s = 0; s < symbols.length; s++) {
+        columns[s] = table.symbolIndex(symbols[s]);
+      }
+      this.dead = table.stateCount();
+    }
+
+    @Override
+    public int start() {
+      return table.start();
+    }
+
+    @Override
+    public int next(int state, int symbolIndex) {
+      int column = columns[symbolIndex];
+      if (state == dead || column < 0) {
+        return dead;
+      }
+      int target = table.next(state, column);
+      return target < 0 ? dead : target;
+    }
+
+    @Override
+    public boolean isAccepting(int state) {
+      return state != dead && table.isAccepting(state);
+    }
+  }
+
+  /** Lazily determinised NDFA; state 0 is the empty (dead) subset. */
+  private static final class SubsetSide implements Side {
+    private final Ndfa ndfa;
+    private final char[] symbols;
+    private final Map<Set<String>, Integer> ids = new HashMap<>();
+    private final List<Set<String>> subsets = new ArrayList<>();
+    private final List<int[]> successors = new ArrayList<>();
+    private final List<Boolean> accepting = new ArrayList<>();
+    private final int start;
+
+    SubsetSide(Ndfa ndfa, char[] symbols) {
+      this.ndfa = ndfa;
+      this.symbols = symbols;
+      id(Set.of());
+      this.start = id(ndfa.epsilonClosure(Set.of(ndfa.getStartState())));
+    }
+
+    private int id(Set<String> subset) {
+      Integer existing = ids.get(subset);
+      if (existing != null) {
+        return existing;
+      }
+      int id = subsets.size();
+      ids.put(subset, id);
+      subsets.add(subset);
+      int[] row = new int[symbols.length];
+      Arrays.fill(row, -1);
+      successors.add(row);
+      boolean isFinal = false;
+      for (String state : subset) {
+        if (ndfa.getFinalStates().contains(state)) {
+          isFinal = true;
+          break;
+        }
+      }
+      accepting.add(isFinal);
+      return id;
+    }
+
+    @Override
+    public int start() {
+      return start;
+    }
+
+    @Override
+    public int next(int state, int symbolIndex) {
+      int[] row = successors.get(state);
+      if (row[symbolIndex] < 0) {
+        char c = symbols[symbolIndex];
+        Set<String> target = ndfa.getAlphabet().contains(c)
+            ? ndfa.transition(subsets.get(state), c)
+            : Set.of();
+        row[symbolIndex] = id(target);
+      }
+      return row[symbolIndex];
+    }
+
+    @Override
+    public boolean isAccepting(int state) {
+      return accepting.get(state);
+    }
+  }
+
+  /** Union-find with path halving and union by size over a growable element range. */
+  private static final class UnionFind {
+    private int[] parent = new int[64];
+    private int[] size = new int[64];
+    private int capacity;
+
+    private void ensure(int element) {
+      if (element >= parent.length) {
+        int newLength = Math.max(parent.length * 2, element + 1);
+        parent = Arrays.copyOf(parent, newLength);
+        size = Arrays.copyOf(size, newLength);
+      }
+      while (capacity <= element) {
+        parent[capacity] = capacity;
+        size[capacity] = 1;
+        capacity++;
+      }
+    }
+
+    int find(int x) {
+      ensure(x);
+      while (parent[x] != x) {
+        parent[x] = parent[parent[x]];
+        x = parent[x];
+      }
+      return x;
+    }
+
+    /** Merges the two classes; returns false if they were already one. */
+    boolean union(int a, int b) {
+      int ra = find(a);
+      int rb = find(b);
+      if (ra == rb) {
+        return false;
+      }
+      if (size[ra] < size[rb]) {
+        int t = ra;
+        ra = rb;
+        rb = t;
+      }
+      parent[rb] = ra;
+      size[ra] += size[rb];
+      return true;
+    }
+  }
+}
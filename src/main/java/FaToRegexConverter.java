@@ -0,0 +1,640 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Converts a DFA to an equivalent regular expression in {@link RegexCompiler} syntax by
+ * state elimination. The DFA is wrapped with a fresh start and accept state, states that
+ * cannot reach an accepting state are dropped, and the remaining states are removed one
+ * at a time, always picking the one with the fewest in-edges × out-edges (self-loops not
+ * counted), since each removal creates that many new paths. Every expression is built
+ * through simplifying constructors (∅ and ε absorption, character-class merging, r r* → r+,
+ * common prefix/suffix factoring of unions), which keeps the output small.
+ *
+ * <pre>
+ * FaToRegexConverter converter = new FaToRegexConverter();
+ * FaToRegexConverter.Regex regex = converter.convert(dfa);
+ * System.out.println(regex.pattern() + " (size " + regex.size() + ")");
+ * boolean ok = converter.verify(dfa, regex); // compiles it back and checks equivalence
+ * </pre>
+ */
+public class FaToRegexConverter {
+
+  /**
+   * A converted expression; {@code size} is its alphabetic width, the number of
+   * character or class occurrences, which is also the state count minus one of the
+   * automaton {@link RegexCompiler} builds from it.
+   *
+   * <p>A DFA with an empty language converts to {@code []}, the empty class, which matches
+   * nothing in {@link RegexCompiler} syntax; ∅ is absorbed everywhere else, so {@code []}
+   * only ever appears as the whole pattern. {@code java.util.regex} rejects {@code []}
+   * as an unclosed class, so map it to a never-matching pattern such as {@code (?!)}
+   * before passing the output there.
+   */
+  public record Regex(String pattern, int size) {
+  }
+
+  public Regex convert(FiniteAutomaton fa) {
+    DfaTable table = DfaTable.from(fa);
+    int n = table.stateCount();
+    int start = n;
+    int accept = n + 1;
+
+    BitSet live = coReachable(table);
+    Graph graph = new Graph(n + 2);
+    if (live.get(table.start())) {
+      graph.add(start, table.start(), Re.EPSILON);
+    }
+    for (int state = 0; state < n; state++) {
+      if (!live.get(state)) {
+        continue;
+      }
+      if (table.isAccepting(state)) {
+        graph.add(state, accept, Re.EPSILON);
+      }
+      Map<Integer, StringBuilder> labels = new HashMap<>();
+      for (int s = 0; s < table.symbolCount(); s++) {
+        int target = table.next(state, s);
+        if (target >= 0 && live.get(target)) {
+          labels.computeIfAbsent(target, k -> new StringBuilder()).append(table.symbolAt(s));
+        }
+      }
+      for (Map.Entry<Integer, StringBuilder> e : labels.entrySet()) {
+        graph.add(state, e.getKey(), Re.chars(e.getValue().toString()));
+      }
+    }
+
+    // Lazy priority queue: a state's entry is stale once its version has moved on.
+    PriorityQueue<Candidate> queue = new PriorityQueue<>();
+    int[] version = new int[n];
+    for (int state = live.nextSetBit(0); state >= 0; state = live.nextSetBit(state + 1)) {
+      queue.add(graph.candidate(state, 0));
+    }
+    BitSet remaining = (BitSet) live.clone();
+    while (!queue.isEmpty()) {
+      Candidate next = queue.poll();
+      int victim = next.state();
+      if (!remaining.get(victim) || next.version() != version[victim]) {
+        continue;
+      }
+      // Only the victim's neighbours gain or lose edges, so only their costs change.
+      Set<Integer> neighbours = new HashSet<>(graph.in.get(victim));
+      neighbours.addAll(graph.out.get(victim).keySet());
+      graph.eliminate(victim);
+      remaining.clear(victim);
+      for (int state : neighbours) {
+        if (state < n && remaining.get(state)) {
+          queue.add(graph.candidate(state, ++version[state]));
+        }
+      }
+    }
+
+    Re result = graph.out.get(start).getOrDefault(accept, Re.EMPTY);
+    return new Regex(result.toPattern(), result.width());
+  }
+
+  /** Compiles the expression back with {@link RegexCompiler} and checks it accepts exactly L(fa). */
+  public boolean verify(FiniteAutomaton fa, Regex regex) {
+    Ndfa compiled = new RegexCompiler().compile(regex.pattern());
+    return new EquivalenceChecker().areEquivalent(compiled, fa);
+  }
+
+  /** Elimination order: fewest new paths first, then the lightest labels, then the lowest state. */
+  private record Candidate(long cost, long weight, int state, int version)
+      implements Comparable<Candidate> {
+
+    @Override
+    public int compareTo(Candidate other) {
+      int c = Long.compare(cost, other.cost);
+      if (c == 0) {
+        c = Long.compare(weight, other.weight);
+      }
+      return c != 0 ? c : Integer.compare(state, other.state);
+    }
+  }
+
+  private static BitSet coReachable(DfaTable table) {
+    int n = table.stateCount();
+    List<List<Integer>> reverse = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      reverse.add(new ArrayList<>());
+    }
+    Queue<Integer> queue = new ArrayDeque<>();
+    BitSet live = new BitSet(n);
+    for (int state = 0; state < n; state++) {
+      for (int s = 0; s < table.symbolCount(); s++) {
+        int target = table.next(state, s);
+        if (target >= 0) {
+          reverse.get(target).add(state);
+        }
+      }
+      if (table.isAccepting(state)) {
+        live.set(state);
+        queue.add(state);
+      }
+    }
+    while (!queue.isEmpty()) {
+      for (int pred : reverse.get(queue.poll())) {
+        if (!live.get(pred)) {
+          live.set(pred);
+          queue.add(pred);
+        }
+      }
+    }
+    return live;
+  }
+
+  /** Generalised NFA: edges labelled by expressions, at most one edge per ordered pair. */
+  private static final class Graph {
+    final List<Map<Integer, Re>> out;
+    final List<Set<Integer>> in;
+
+    Graph(int size) {
+      out = new ArrayList<>(size);
+      in = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        out.add(new HashMap<>());
+        in.add(new HashSet<>());
+      }
+    }
+
+    void add(int from, int to, Re label) {
+      out.get(from).merge(to, label, Re::union);
+      in.get(to).add(from);
+    }
+
+    /** Cost of eliminating the state: in-edges × out-edges, self-loops not counted. */
+    Candidate candidate(int state, int version) {
+      boolean loop = out.get(state).containsKey(state);
+      long ins = in.get(state).size() - (loop ? 1 : 0);
+      long outs = out.get(state).size() - (loop ? 1 : 0);
+      return new Candidate(ins * outs, weight(state), state, version);
+    }
+
+    long weight(int state) {
+      long w = 0;
+      for (Re r : out.get(state).values()) {
+        w += r.width();
+      }
+      for (int pred : in.get(state)) {
+        w += out.get(pred).get(state).width();
+      }
+      return w;
+    }
+
+    /** Replaces every path p → k → q by a direct edge p → q labelled (p,k)(k,k)*(k,q). */
+    void eliminate(int k) {
+      Re loop = out.get(k).get(k);
+      Re middle = loop == null ? Re.EPSILON : Re.star(loop);
+      List<Integer> preds = new ArrayList<>(in.get(k));
+      List<Map.Entry<Integer, Re>> succs = new ArrayList<>(out.get(k).entrySet());
+      for (int p : preds) {
+        if (p == k) {
+          continue;
+        }
+        Re head = Re.concat(out.get(p).get(k), middle);
+        for (Map.Entry<Integer, Re> e : succs) {
+          int q = e.getKey();
+          if (q != k) {
+            add(p, q, Re.concat(head, e.getValue()));
+          }
+        }
+      }
+      for (int p : preds) {
+        out.get(p).remove(k);
+      }
+      for (Map.Entry<Integer, Re> e : succs) {
+        in.get(e.getKey()).remove(k);
+      }
+      out.get(k).clear();
+      in.get(k).clear();
+    }
+  }
+
+  /** Regular expression tree; instances are only created through the simplifying factories. */
+  private sealed interface Re permits Empty, Epsilon, Chars, Concat, Union, Star, Plus {
+    Re EMPTY = new Empty();
+    Re EPSILON = new Epsilon();
+
+    boolean nullable();
+
+    int width();
+
+    /** 0 = union, 1 = concatenation, 2 = postfix, 3 = atom. */
+    int precedence();
+
+    void print(StringBuilder out);
+
+    default String toPattern() {
+      StringBuilder out = new StringBuilder();
+      print(out);
+      return out.toString();
+    }
+
+    default void printAt(int minPrecedence, StringBuilder out) {
+      if (precedence() < minPrecedence) {
+        out.append('(');
+        print(out);
+        out.append(')');
+      } else {
+        print(out);
+      }
+    }
+
+    static Re chars(String symbols) {
+      TreeSet<Character> set = new TreeSet<>();
+      for (int i = 0; i < symbols.length(); i++) {
+        set.add(symbols.charAt(i));
+      }
+      StringBuilder sorted = new StringBuilder(set.size());
+      for (char c : set) {
+        sorted.append(c);
+      }
+      return sorted.length() == 0 ? EMPTY : new Chars(sorted.toString());
+    }
+
+    static Re star(Re r) {
+      if (r instanceof Empty || r instanceof Epsilon || r instanceof Star) {
+        return r instanceof Star ? r : EPSILON;
+      }
+      if (r instanceof Plus p) {
+        return new Star(p.inner());
+      }
+      if (r instanceof Union u && u.alternatives().contains(EPSILON)) {
+        return star(withoutEpsilon(u)); // (ε|r)* = r*
+      }
+      return new Star(r);
+    }
+
+    static Re concat(Re... parts) {
+      List<Re> items = new ArrayList<>();
+      for (Re part : parts) {
+        if (part instanceof Empty) {
+          return EMPTY;
+        }
+        List<Re> pieces = part instanceof Concat c ? c.items() : List.of(part);
+        for (Re piece : pieces) {
+          if (piece instanceof Epsilon) {
+            continue;
+          }
+          appendPiece(items, piece);
+        }
+      }
+      if (items.isEmpty()) {
+        return EPSILON;
+      }
+      return items.size() == 1 ? items.get(0) : new Concat(List.copyOf(items));
+    }
+
+    /** Appends with r r* → r+, r* r → r+, r* r* → r*, r+ r* → r+, r* r+ → r+. */
+    private static void appendPiece(List<Re> items, Re piece) {
+      if (!items.isEmpty()) {
+        Re last = items.get(items.size() - 1);
+        Re merged = null;
+        if (piece instanceof Star s && (last.equals(s.inner()) || last.equals(new Plus(s.inner())))) {
+          merged = new Plus(s.inner());
+        } else if (last instanceof Star s && (piece.equals(s.inner()) || piece.equals(new Plus(s.inner())))) {
+          merged = new Plus(s.inner());
+        } else if (last instanceof Star && last.equals(piece)) {
+          merged = last;
+        }
+        if (merged != null) {
+          items.set(items.size() - 1, merged);
+          return;
+        }
+      }
+      items.add(piece);
+    }
+
+    static Re union(Re a, Re b) {
+      Set<Re> alternatives = new LinkedHashSet<>();
+      StringBuilder chars = new StringBuilder();
+      for (Re r : new Re[] {a, b}) {
+        for (Re alt : r instanceof Union u ? u.alternatives() : List.of(r)) {
+          if (alt instanceof Chars c) {
+            chars.append(c.symbols());
+          } else if (!(alt instanceof Empty)) {
+            alternatives.add(alt);
+          }
+        }
+      }
+      if (chars.length() > 0) {
+        alternatives.add(chars(chars.toString()));
+      }
+      if (alternatives.contains(EPSILON)) {
+        // ε is redundant next to a nullable alternative; ε|r+ is r*
+        boolean absorbed = false;
+        for (Re alt : new ArrayList<>(alternatives)) {
+          if (alt instanceof Plus p) {
+            alternatives.remove(alt);
+            alternatives.add(new Star(p.inner()));
+            absorbed = true;
+          } else if (alt != EPSILON && alt.nullable()) {
+            absorbed = true;
+          }
+        }
+        if (absorbed) {
+          alternatives.remove(EPSILON);
+        }
+      }
+      if (alternatives.isEmpty()) {
+        return EMPTY;
+      }
+      if (alternatives.size() == 1) {
+        return alternatives.iterator().next();
+      }
+      return factor(new ArrayList<>(alternatives));
+    }
+
+    /** Pulls a prefix or suffix shared by every alternative out of the union. */
+    private static Re factor(List<Re> alternatives) {
+      List<List<Re>> sequences = new ArrayList<>();
+      for (Re alt : alternatives) {
+        sequences.add(alt instanceof Concat c ? c.items()
+            : alt instanceof Epsilon ? List.of() : List.of(alt));
+      }
+      int prefix = commonLength(sequences, false);
+      int suffix = prefix > 0 ? 0 : commonLength(sequences, true);
+      if (prefix == 0 && suffix == 0) {
+        return new Union(List.copyOf(alternatives));
+      }
+      List<Re> shared = prefix > 0
+          ? sequences.get(0).subList(0, prefix)
+          : sequences.get(0).subList(sequences.get(0).size() - suffix, sequences.get(0).size());
+      Re rest = EMPTY;
+      for (List<Re> seq : sequences) {
+        List<Re> tail = prefix > 0 ? seq.subList(prefix, seq.size()) : seq.subList(0, seq.size() - suffix);
+        rest = union(rest, concat(tail.toArray(new Re[0])));
+      }
+      Re sharedRe = concat(shared.toArray(new Re[0]));
+      return prefix > 0 ? concat(sharedRe, rest) : concat(rest, sharedRe);
+    }
+
+    private static int commonLength(List<List<Re>> sequences, boolean fromEnd) {
+      int length = 0;
+      while (true) {
+        Re candidate = null;
+        for (List<Re> seq : sequences) {
+          if (seq.size() <= length) {
+            return length;
+          }
+          Re item = fromEnd ? seq.get(seq.size() - 1 - length) : seq.get(length);
+          if (candidate == null) {
+            candidate = item;
+          } else if (!candidate.equals(item)) {
+            return length;
+          }
+        }
+        length++;
+      }
+    }
+
+    private static Re withoutEpsilon(Union u) {
+      Re result = EMPTY;
+      for (Re alt : u.alternatives()) {
+        if (alt != EPSILON) {
+          result = union(result, alt);
+        }
+      }
+      return result;
+    }
+  }
+
+  private record Empty() implements Re {
+    @Override
+    public boolean nullable() {
+      return false;
+    }
+
+    @Override
+    public int width() {
+      return 1;
+    }
+
+    @Override
+    public int precedence() {
+      return 3;
+    }
+
+    @Override
+    public void print(StringBuilder out) {
+      out.append("[]");
+    }
+  }
+
+  private record Epsilon() implements Re {
+    @Override
+    public boolean nullable() {
+      return true;
+    }
+
+    @Override
+    public int width() {
+      return 0;
+    }
+
+    @Override
+    public int precedence() {
+      return 3;
+    }
+
+    @Override
+    public void print(StringBuilder out) {
+      out.append("()");
+    }
+  }
+
+  /** One position matching any of {@code symbols} (sorted, distinct, non-empty). */
+  private record Chars(String symbols) implements Re {
+    private static final String SPECIAL = "|*+?()[]\\-";
+
+    @Override
+    public boolean nullable() {
+      return false;
+    }
+
+    @Override
+    public int width() {
+      return 1;
+    }
+
+    @Override
+    public int precedence() {
+      return 3;
+    }
+
+    @Override
+    public void print(StringBuilder out) {
+      if (symbols.length() == 1) {
+        appendEscaped(out, symbols.charAt(0));
+        return;
+      }
+      out.append('[');
+      int i = 0;
+      while (i < symbols.length()) {
+        int j = i;
+        while (j + 1 < symbols.length() && symbols.charAt(j + 1) == symbols.charAt(j) + 1) {
+          j++;
+        }
+        appendEscaped(out, symbols.charAt(i));
+        if (j - i >= 2) {
+          out.append('-');
+          appendEscaped(out, symbols.charAt(j));
+          i = j + 1;
+        } else {
+          i++;
+        }
+      }
+      out.append(']');
+    }
+
+    private static void appendEscaped(StringBuilder out, char c) {
+      if (SPECIAL.indexOf(c) >= 0) {
+        out.append('\\');
+      }
+      out.append(c);
+    }
+  }
+
+  private record Concat(List<Re> items) implements Re {
+    @Override
+    public boolean nullable() {
+      for (Re r : items) {
+        if (!r.nullable()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int width() {
+      int w = 0;
+      for (Re r : items) {
+        w += r.width();
+      }
+      return w;
+    }
+
+    @Override
+    public int precedence() {
+      return 1;
+    }
+
+    @Override
+    public void print(StringBuilder out) {
+      for (Re r : items) {
+        r.printAt(2, out);
+      }
+    }
+  }
+
+  /** Alternatives are distinct; ε, when present, is printed as a trailing {@code ?}. */
+  private record Union(List<Re> alternatives) implements Re {
+    @Override
+    public boolean nullable() {
+      for (Re r : alternatives) {
+        if (r.nullable()) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public int width() {
+      int w = 0;
+      for (Re r : alternatives) {
+        w += r.width();
+      }
+      return w;
+    }
+
+    @Override
+    public int precedence() {
+      return alternatives.contains(EPSILON) ? 2 : 0;
+    }
+
+    @Override
+    public void print(StringBuilder out) {
+      List<Re> rest = new ArrayList<>(alternatives);
+      boolean optional = rest.remove(EPSILON);
+      if (optional) {
+        if (rest.size() == 1) {
+          rest.get(0).printAt(3, out);
+        } else {
+          out.append('(');
+          printAlternatives(rest, out);
+          out.append(')');
+        }
+        out.append('?');
+      } else {
+        printAlternatives(rest, out);
+      }
+    }
+
+    private static void printAlternatives(List<Re> alternatives, StringBuilder out) {
+      for (int i = 0; i < alternatives.size(); i++) {
+        if (i > 0) {
+          out.append('|');
+        }
+        alternatives.get(i).printAt(1, out);
+      }
+    }
+  }
+
+  private record Star(Re inner) implements Re {
+    @Override
+    public boolean nullable() {
+      return true;
+    }
+
+    @Override
+    public int width() {
+      return inner.width();
+    }
+
+    @Override
+    public int precedence() {
+      return 2;
+    }
+
+    @Override
+    public void print(StringBuilder out) {
+      inner.printAt(3, out);
+      out.append('*');
+    }
+  }
+
+  private record Plus(Re inner) implements Re {
+    @Override
+    public boolean nullable() {
+      return inner.nullable();
+    }
+
+    @Override
+    public int width() {
+      return inner.width();
+    }
+
+    @Override
+    public int precedence() {
+      return 2;
+    }
+
+    @Override
+    public void print(StringBuilder out) {
+      inner.printAt(3, out);
+      out.append('+');
+    }
+  }
+}
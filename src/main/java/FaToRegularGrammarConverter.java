@@ -4,6 +4,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import instrumentation.Instrumentation;
 
 /**
  * Converts a Deterministic Finite Automaton (DFA) to an equivalent
@@ -17,6 +18,7 @@ public class FaToRegularGrammarConverter {
    * For δ(q, a) = q': add q → aq' (or q → a if q' is final).
    */
   public Grammar convert(FiniteAutomaton fa) {
+    Instrumentation.Span span = Instrumentation.startFaToGrammar();
     Set<String> nonTerminals = fa.getStates();
     Set<String> terminals = new HashSet<>();
     for (Character c : fa.getAlphabet()) {
@@ -50,6 +52,13 @@ public class FaToRegularGrammarConverter {
       productions.computeIfAbsent(finalState, k -> new ArrayList<>()).add("ε");
     }
 
+    if (Instrumentation.ENABLED) {
+      int productionCount = 0;
+      for (List<String> rhs : productions.values()) {
+        productionCount += rhs.size();
+      }
+      Instrumentation.recordFaToGrammar(span, nonTerminals.size(), productionCount);
+    }
     return new Grammar(nonTerminals, terminals, productions, startSymbol);
   }
 }
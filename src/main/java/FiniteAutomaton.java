@@ -1,5 +1,6 @@
 import java.util.Map;
 import java.util.Set;
+import instrumentation.Instrumentation;
 
 public class FiniteAutomaton {
 
@@ -49,6 +50,9 @@ public class FiniteAutomaton {
   }
 
   public boolean stringBelongToLanguage(final String inputString) {
+    if (Instrumentation.ENABLED) {
+      Instrumentation.recordMatch(inputString.length());
+    }
     String current = startState;
 
     for (int i = 0; i < inputString.length(); i++) {
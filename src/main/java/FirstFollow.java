@@ -0,0 +1,237 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * FIRST and FOLLOW sets of a {@link Grammar}, computed by fixed-point iteration over bitsets.
+ * As everywhere in {@link Grammar}, each char of a right-hand side is one symbol:
+ * a non-terminal if it is in Vn, otherwise a terminal. "ε" or "" is the empty right-hand side.
+ *
+ * <p>Symbols are encoded as ints: terminal t is {@code t >= 0}, non-terminal A is
+ * {@code ~A < 0}. Terminal index {@link #endMarker()} stands for end of input ($).
+ */
+public final class FirstFollow {
+
+  private final List<String> nonTerminals;
+  private final Map<String, Integer> nonTerminalIndex = new HashMap<>();
+  private final List<Character> terminals;
+  private final Map<Character, Integer> terminalIndex = new HashMap<>();
+  private final int[] productionLhs;
+  private final int[][] productionRhs;
+  private final List<String> productionText;
+  private final boolean[] nullable;
+  private final BitSet[] first;
+  private final BitSet[] follow;
+
+  private FirstFollow(Grammar grammar) {
+    nonTerminals = new ArrayList<>(new TreeSet<>(grammar.getNonTerminals()));
+    for (int i = 0; i < nonTerminals.size(); i++) {
+      nonTerminalIndex.put(nonTerminals.get(i), i);
+    }
+    Map<String, List<String>> productions = grammar.getProductions();
+
+    TreeSet<Character> terminalChars = new TreeSet<>();
+    for (String t : grammar.getTerminals()) {
+      if (t.length() == 1) {
+        terminalChars.add(t.charAt(0));
+      }
+    }
+    for (List<String> rhsList : productions.values()) {
+      for (String rhs : rhsList) {
+        for (char c : body(rhs).toCharArray()) {
+          if (!nonTerminalIndex.containsKey(String.valueOf(c))) {
+            terminalChars.add(c);
+          }
+        }
+      }
+    }
+    terminals = new ArrayList<>(terminalChars);
+    for (int i = 0; i < terminals.size(); i++) {
+      terminalIndex.put(terminals.get(i), i);
+    }
+
+    List<Integer> lhs = new ArrayList<>();
+    List<int[]> rhs = new ArrayList<>();
+    productionText = new ArrayList<>();
+    for (String nt : nonTerminals) {
+      for (String right : productions.getOrDefault(nt, List.of())) {
+        String b = body(right);
+        int[] symbols = new int[b.length()];
+        for (int i = 0; i < b.length(); i++) {
+          symbols[i] = encode(b.charAt(i));
+        }
+        lhs.add(nonTerminalIndex.get(nt));
+        rhs.add(symbols);
+        productionText.add(nt + " → " + (b.isEmpty() ? "ε" : b));
+      }
+    }
+    productionLhs = lhs.stream().mapToInt(Integer::intValue).toArray();
+    productionRhs = rhs.toArray(new int[0][]);
+
+    int n = nonTerminals.size();
+    nullable = new boolean[n];
+    first = new BitSet[n];
+    follow = new BitSet[n];
+    for (int i = 0; i < n; i++) {
+      first[i] = new BitSet(terminals.size() + 1);
+      follow[i] = new BitSet(terminals.size() + 1);
+    }
+    computeFirst();
+    Integer start = nonTerminalIndex.get(grammar.getStartSymbol());
+    if (start != null) {
+      follow[start].set(endMarker());
+    }
+    computeFollow();
+  }
+
+  public static FirstFollow compute(Grammar grammar) {
+    return new FirstFollow(grammar);
+  }
+
+  private static String body(String rhs) {
+    return "ε".equals(rhs) ? "" : rhs;
+  }
+
+  private int encode(char c) {
+    Integer nt = nonTerminalIndex.get(String.valueOf(c));
+    return nt != null ? ~nt : terminalIndex.get(c);
+  }
+
+  private void computeFirst() {
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int p = 0; p < productionLhs.length; p++) {
+        int a = productionLhs[p];
+        int before = first[a].cardinality();
+        boolean rhsNullable = firstOfSequence(productionRhs[p], 0, first[a]);
+        if (rhsNullable && !nullable[a]) {
+          nullable[a] = true;
+          changed = true;
+        }
+        changed |= first[a].cardinality() != before;
+      }
+    }
+  }
+
+  private void computeFollow() {
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int p = 0; p < productionLhs.length; p++) {
+        int[] rhs = productionRhs[p];
+        BitSet trailer = (BitSet) follow[productionLhs[p]].clone();
+        for (int i = rhs.length - 1; i >= 0; i--) {
+          int sym = rhs[i];
+          if (sym >= 0) {
+            trailer.clear();
+            trailer.set(sym);
+            continue;
+          }
+          int b = ~sym;
+          int before = follow[b].cardinality();
+          follow[b].or(trailer);
+          changed |= follow[b].cardinality() != before;
+          if (nullable[b]) {
+            trailer.or(first[b]);
+          } else {
+            trailer = (BitSet) first[b].clone();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds FIRST(symbols[from..]) to {@code out} and returns whether that suffix is nullable.
+   */
+  boolean firstOfSequence(int[] symbols, int from, BitSet out) {
+    for (int i = from; i < symbols.length; i++) {
+      int sym = symbols[i];
+      if (sym >= 0) {
+        out.set(sym);
+        return false;
+      }
+      out.or(first[~sym]);
+      if (!nullable[~sym]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public Set<String> first(String nonTerminal) {
+    return names(first[nonTerminalIndex.get(nonTerminal)]);
+  }
+
+  public Set<String> follow(String nonTerminal) {
+    return names(follow[nonTerminalIndex.get(nonTerminal)]);
+  }
+
+  public boolean isNullable(String nonTerminal) {
+    return nullable[nonTerminalIndex.get(nonTerminal)];
+  }
+
+  private Set<String> names(BitSet bits) {
+    Set<String> result = new LinkedHashSet<>();
+    for (int t = bits.nextSetBit(0); t >= 0; t = bits.nextSetBit(t + 1)) {
+      result.add(t == endMarker() ? "$" : String.valueOf(terminals.get(t)));
+    }
+    return result;
+  }
+
+  int endMarker() {
+    return terminals.size();
+  }
+
+  int nonTerminalCount() {
+    return nonTerminals.size();
+  }
+
+  String nonTerminal(int index) {
+    return nonTerminals.get(index);
+  }
+
+  int nonTerminalIndex(String nonTerminal) {
+    Integer index = nonTerminalIndex.get(nonTerminal);
+    return index == null ? -1 : index;
+  }
+
+  int terminalCount() {
+    return terminals.size();
+  }
+
+  char terminal(int index) {
+    return terminals.get(index);
+  }
+
+  int terminalIndex(char terminal) {
+    Integer index = terminalIndex.get(terminal);
+    return index == null ? -1 : index;
+  }
+
+  int productionCount() {
+    return productionLhs.length;
+  }
+
+  int productionLhs(int p) {
+    return productionLhs[p];
+  }
+
+  int[] productionRhs(int p) {
+    return productionRhs[p];
+  }
+
+  String productionText(int p) {
+    return productionText.get(p);
+  }
+
+  BitSet followBits(int nonTerminal) {
+    return follow[nonTerminal];
+  }
+}
@@ -1,4 +1,5 @@
 import java.util.*;
+import instrumentation.Instrumentation;
 
 public class Grammar {
 
@@ -178,6 +179,7 @@ public class Grammar {
   }
 
   public FiniteAutomaton toFiniteAutomaton() {
+    Instrumentation.Span span = Instrumentation.startGrammarToAutomaton();
 
     String finalState = "F"; //финальное состояние
 
@@ -215,6 +217,14 @@ public class Grammar {
     String startState = startSymbol;
     Set<String> finalStates = Set.of(finalState);
 
+    if (Instrumentation.ENABLED) {
+      int productionCount = 0;
+      for (List<String> rhs : productions.values()) {
+        productionCount += rhs.size();
+      }
+      Instrumentation.recordGrammarToAutomaton(span, nonTerminals.size(), productionCount, states.size());
+    }
+
     return new FiniteAutomaton(states, alphabet, delta, startState, finalStates);
   }
 
@@ -0,0 +1,77 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lexer.TokenType;
+
+/**
+ * LL(1) grammar of the Lab 3 language (see {@code lexer.MainLab3}) in the one-char-per-symbol
+ * form used by {@link Grammar}, together with the binding of its terminals to token types.
+ *
+ * <pre>
+ * P → S P | ε                       program / statement list
+ * S → let id = E ; | id = E ; | return E ; | if ( E ) B L | B
+ * B → { P }
+ * L → else B | ε
+ * E → A R                           R: optional comparison
+ * R → == A | != A | &lt; A | &gt; A | &lt;= A | &gt;= A | ε
+ * A → T X      X → + T X | - T X | ε
+ * T → F Y      Y → * F Y | / F Y | ε
+ * F → int | float | id | ( E ) | - F | sin ( E ) | cos ( E )
+ * </pre>
+ */
+public final class Lab3Grammar {
+
+  private Lab3Grammar() {
+  }
+
+  public static Grammar grammar() {
+    Map<String, List<String>> productions = new HashMap<>();
+    productions.put("P", List.of("SP", "ε"));
+    productions.put("S", List.of("li=E;", "i=E;", "rE;", "f(E)BL", "B"));
+    productions.put("B", List.of("{P}"));
+    productions.put("L", List.of("eB", "ε"));
+    productions.put("E", List.of("AR"));
+    productions.put("R", List.of("qA", "!A", "<A", ">A", "kA", "gA", "ε"));
+    productions.put("A", List.of("TX"));
+    productions.put("X", List.of("+TX", "-TX", "ε"));
+    productions.put("T", List.of("FY"));
+    productions.put("Y", List.of("*FY", "/FY", "ε"));
+    productions.put("F", List.of("n", "d", "i", "(E)", "-F", "s(E)", "c(E)"));
+    return new Grammar(productions.keySet(), terminals().keySet(), productions, "P");
+  }
+
+  public static Map<String, TokenType> terminals() {
+    Map<String, TokenType> t = new HashMap<>();
+    t.put("l", TokenType.LET);
+    t.put("f", TokenType.IF);
+    t.put("e", TokenType.ELSE);
+    t.put("r", TokenType.RETURN);
+    t.put("s", TokenType.SIN);
+    t.put("c", TokenType.COS);
+    t.put("i", TokenType.IDENTIFIER);
+    t.put("n", TokenType.INTEGER);
+    t.put("d", TokenType.FLOAT);
+    t.put("=", TokenType.ASSIGN);
+    t.put("q", TokenType.EQUALS);
+    t.put("!", TokenType.NOT_EQUALS);
+    t.put("+", TokenType.PLUS);
+    t.put("-", TokenType.MINUS);
+    t.put("*", TokenType.MULTIPLY);
+    t.put("/", TokenType.DIVIDE);
+    t.put("<", TokenType.LESS);
+    t.put(">", TokenType.GREATER);
+    t.put("k", TokenType.LESS_EQUAL);
+    t.put("g", TokenType.GREATER_EQUAL);
+    t.put("(", TokenType.LPAREN);
+    t.put(")", TokenType.RPAREN);
+    t.put("{", TokenType.LBRACE);
+    t.put("}", TokenType.RBRACE);
+    t.put(",", TokenType.COMMA);
+    t.put(";", TokenType.SEMICOLON);
+    return t;
+  }
+
+  public static Ll1Parser parser() {
+    return new Ll1Parser(new Ll1TableGenerator().generate(grammar()), terminals());
+  }
+}
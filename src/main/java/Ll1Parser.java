@@ -0,0 +1,125 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import lexer.Token;
+import lexer.TokenType;
+
+/**
+ * Table-driven LL(1) parser over the token stream of {@link lexer.Lexer}.
+ * Grammar terminals are bound to {@link TokenType}s; the driver works on token type
+ * ordinals with an explicit int stack, so it never recurses and runs in time linear
+ * in the number of tokens (each token is matched once and every expansion adds nodes).
+ * {@link #parse} returns the compacted tree of {@link SyntaxTree#compact()};
+ * {@link #parseDerivation} keeps the full derivation tree.
+ */
+public class Ll1Parser {
+
+  private final Ll1Table table;
+  private final FirstFollow sets;
+  private final int[] terminalOfOrdinal;
+
+  /**
+   * @param bindings grammar terminal (one-char string) for each token type the grammar uses;
+   *                 {@link TokenType#EOF} is always end of input
+   */
+  public Ll1Parser(Ll1Table table, Map<String, TokenType> bindings) {
+    this.table = table;
+    this.sets = table.getFirstFollow();
+    this.terminalOfOrdinal = new int[TokenType.values().length];
+    Arrays.fill(terminalOfOrdinal, -1);
+    for (Map.Entry<String, TokenType> b : bindings.entrySet()) {
+      int t = b.getKey().length() == 1 ? sets.terminalIndex(b.getKey().charAt(0)) : -1;
+      if (t < 0) {
+        throw new IllegalArgumentException("Not a terminal of the grammar: " + b.getKey());
+      }
+      terminalOfOrdinal[b.getValue().ordinal()] = t;
+    }
+    terminalOfOrdinal[TokenType.EOF.ordinal()] = sets.endMarker();
+  }
+
+  public SyntaxTree parse(List<Token> tokens) {
+    int[] ordinals = new int[tokens.size()];
+    for (int i = 0; i < ordinals.length; i++) {
+      ordinals[i] = tokens.get(i).getType().ordinal();
+    }
+    return parse(ordinals);
+  }
+
+  /**
+   * Parses token type ordinals into the compact tree of {@link SyntaxTree#compact()};
+   * the input must end with {@link TokenType#EOF}.
+   *
+   * @throws IllegalArgumentException on a syntax error, naming the token index
+   */
+  public SyntaxTree parse(int[] tokenTypes) {
+    return parseDerivation(tokenTypes).compact();
+  }
+
+  /**
+   * Parses token type ordinals into the full derivation tree: one node per expansion,
+   * ε expansions included, each recording its production.
+   *
+   * @throws IllegalArgumentException on a syntax error, naming the token index
+   */
+  public SyntaxTree parseDerivation(int[] tokenTypes) {
+    SyntaxTree tree = new SyntaxTree(sets, tokenTypes.length * 2);
+    int[] stack = new int[64];
+    int top = 0;
+    stack[top++] = tree.add(~table.startSymbol());
+    int pos = 0;
+
+    while (top > 0) {
+      int node = stack[--top];
+      int lookahead = pos < tokenTypes.length ? terminalOfOrdinal[tokenTypes[pos]] : sets.endMarker();
+      if (lookahead < 0) {
+        throw error(tokenTypes, pos, "token not in grammar");
+      }
+      int symbol = tree.symbol(node);
+      if (symbol >= 0) {
+        if (symbol != lookahead) {
+          throw error(tokenTypes, pos, "expected '" + sets.terminal(symbol) + "'");
+        }
+        tree.setPayload(node, pos++);
+        continue;
+      }
+
+      int nonTerminal = ~symbol;
+      int p = table.production(nonTerminal, lookahead);
+      if (p < 0) {
+        throw error(tokenTypes, pos, "unexpected while parsing " + sets.nonTerminal(nonTerminal));
+      }
+      tree.setPayload(node, p);
+      int[] rhs = sets.productionRhs(p);
+      if (rhs.length == 0) {
+        continue;
+      }
+      if (top + rhs.length > stack.length) {
+        stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + rhs.length));
+      }
+      int previous = -1;
+      int firstChild = tree.size();
+      for (int sym : rhs) {
+        int child = tree.add(sym);
+        if (previous >= 0) {
+          tree.setNextSibling(previous, child);
+        }
+        previous = child;
+      }
+      tree.setFirstChild(node, firstChild);
+      for (int i = rhs.length - 1; i >= 0; i--) {
+        stack[top++] = firstChild + i;
+      }
+    }
+
+    int remaining = pos < tokenTypes.length ? terminalOfOrdinal[tokenTypes[pos]] : sets.endMarker();
+    if (remaining != sets.endMarker()) {
+      throw error(tokenTypes, pos, "expected end of input");
+    }
+    return tree;
+  }
+
+  private static IllegalArgumentException error(int[] tokenTypes, int pos, String message) {
+    String found = pos < tokenTypes.length ? TokenType.values()[tokenTypes[pos]].name() : "end of input";
+    return new IllegalArgumentException("Syntax error at token " + pos + " (" + found + "): " + message);
+  }
+}
@@ -0,0 +1,44 @@
+import java.util.List;
+
+/**
+ * LL(1) parse table: for (non-terminal, lookahead terminal) the production to expand, or -1.
+ * Produced by {@link Ll1TableGenerator}; a table with conflicts is not LL(1) and only
+ * resolves each conflict in favour of the earlier production.
+ */
+public final class Ll1Table {
+
+  private final FirstFollow sets;
+  private final int[] table;
+  private final int columns;
+  private final List<String> conflicts;
+  private final int startSymbol;
+
+  Ll1Table(FirstFollow sets, int[] table, List<String> conflicts, int startSymbol) {
+    this.sets = sets;
+    this.table = table;
+    this.columns = sets.terminalCount() + 1;
+    this.conflicts = List.copyOf(conflicts);
+    this.startSymbol = startSymbol;
+  }
+
+  public boolean isLl1() {
+    return conflicts.isEmpty();
+  }
+
+  /** Human-readable description of each conflicting cell, e.g. {@code M[S, a]: S → aB | S → aC}. */
+  public List<String> getConflicts() {
+    return conflicts;
+  }
+
+  public FirstFollow getFirstFollow() {
+    return sets;
+  }
+
+  int production(int nonTerminal, int terminal) {
+    return table[nonTerminal * columns + terminal];
+  }
+
+  int startSymbol() {
+    return startSymbol;
+  }
+}
@@ -0,0 +1,40 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Builds the LL(1) parse table of a {@link Grammar} from its FIRST and FOLLOW sets.
+ * For each production A → α: M[A, a] = A → α for every a in FIRST(α), and if α is
+ * nullable also for every a in FOLLOW(A). A cell claimed by two productions is a
+ * conflict; the first production is kept and the conflict is reported.
+ */
+public class Ll1TableGenerator {
+
+  public Ll1Table generate(Grammar grammar) {
+    FirstFollow sets = FirstFollow.compute(grammar);
+    int columns = sets.terminalCount() + 1;
+    int[] table = new int[sets.nonTerminalCount() * columns];
+    Arrays.fill(table, -1);
+    List<String> conflicts = new ArrayList<>();
+
+    for (int p = 0; p < sets.productionCount(); p++) {
+      int a = sets.productionLhs(p);
+      BitSet lookahead = new BitSet(columns);
+      if (sets.firstOfSequence(sets.productionRhs(p), 0, lookahead)) {
+        lookahead.or(sets.followBits(a));
+      }
+      for (int t = lookahead.nextSetBit(0); t >= 0; t = lookahead.nextSetBit(t + 1)) {
+        int cell = a * columns + t;
+        if (table[cell] < 0) {
+          table[cell] = p;
+        } else if (table[cell] != p) {
+          String terminal = t == sets.endMarker() ? "$" : String.valueOf(sets.terminal(t));
+          conflicts.add("M[" + sets.nonTerminal(a) + ", " + terminal + "]: "
+              + sets.productionText(table[cell]) + " | " + sets.productionText(p));
+        }
+      }
+    }
+    return new Ll1Table(sets, table, conflicts, sets.nonTerminalIndex(grammar.getStartSymbol()));
+  }
+}
@@ -43,6 +43,14 @@ public class MainLab2 {
 
     Grammar lab1Grammar = new Grammar();
     System.out.println("6) Lab 1 grammar classification: " + lab1Grammar.classifyGrammar());
+    System.out.println();
+
+    FaToRegexConverter regexConverter = new FaToRegexConverter();
+    FaToRegexConverter.Regex regex = regexConverter.convert(dfa);
+    System.out.println("7) DFA to regular expression (state elimination): " + regex.pattern());
+    System.out.println("   Size: " + regex.size() + " symbol positions, "
+        + regex.pattern().length() + " characters");
+    System.out.println("   Equivalent to the DFA: " + regexConverter.verify(dfa, regex));
   }
 
   /** Creates Variant 11 NDFA. δ(q2,c) = {q0, q3} makes it non-deterministic. */
@@ -0,0 +1,98 @@
+import java.nio.ByteBuffer;
+import instrumentation.Instrumentation;
+
+/**
+ * DFA that runs directly on a memory-mapped {@link DfaBinaryFormat} file.
+ * Every lookup is an absolute read from the mapping; nothing is copied to the heap.
+ */
+public final class MappedDfa implements Automaton {
+
+  private final ByteBuffer buffer;
+  private final int stateCount;
+  private final int symbolCount;
+  private final int start;
+  private final int symbolsOffset;
+  private final int tableOffset;
+  private final int acceptOffset;
+
+  MappedDfa(ByteBuffer buffer, int stateCount, int symbolCount, int start,
+            int symbolsOffset, int tableOffset, int acceptOffset) {
+    this.buffer = buffer;
+    this.stateCount = stateCount;
+    this.symbolCount = symbolCount;
+    this.start = start;
+    this.symbolsOffset = symbolsOffset;
+    this.tableOffset = tableOffset;
+    this.acceptOffset = acceptOffset;
+  }
+
+  public int stateCount() {
+    return stateCount;
+  }
+
+  public int symbolCount() {
+    return symbolCount;
+  }
+
+  @Override
+  public boolean accepts(String input) {
+    if (Instrumentation.ENABLED) {
+      Instrumentation.recordMatch(input.length());
+    }
+    int state = start;
+    for (int i = 0; i < input.length(); i++) {
+      int s = symbolIndex(input.charAt(i));
+      if (s < 0) {
+        return false;
+      }
+      state = buffer.getInt(tableOffset + 4 * (state * symbolCount + s));
+      if (state < 0) {
+        return false;
+      }
+    }
+    return isAccepting(state);
+  }
+
+  private boolean isAccepting(int state) {
+    if (state >= stateCount) {
+      return false;
+    }
+    long word = buffer.getLong(acceptOffset + 8 * (state >>> 6));
+    return (word & (1L << state)) != 0;
+  }
+
+  /** Binary search over the mapped, sorted symbol array. */
+  private int symbolIndex(char c) {
+    int low = 0;
+    int high = symbolCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      char midVal = buffer.getChar(symbolsOffset + 2 * mid);
+      if (midVal < c) {
+        low = mid + 1;
+      } else if (midVal > c) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /** Copies the mapped table back into heap form, e.g. to compare against the source automaton. */
+  public DfaTable toDfaTable() {
+    char[] symbols = new char[symbolCount];
+    for (int i = 0; i < symbolCount; i++) {
+      symbols[i] = buffer.getChar(symbolsOffset + 2 * i);
+    }
+    int[] table = new int[stateCount * symbolCount];
+    for (int i = 0; i < table.length; i++) {
+      table[i] = buffer.getInt(tableOffset + 4 * i);
+    }
+    long[] accepting = new long[(stateCount + 63) >>> 6];
+    for (int i = 0; i < accepting.length; i++) {
+      accepting[i] = buffer.getLong(acceptOffset + 8 * i);
+    }
+    return new DfaTable(symbols, table, accepting, stateCount);
+  }
+}
@@ -1,12 +1,19 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Represents a Non-deterministic Finite Automaton (NDFA).
  * Transitions map (state, symbol) to a set of possible next states.
+ * Optional ε-transitions map a state to states reachable without consuming input;
+ * their closures are computed once, at construction, as bitsets over state indices.
  */
 public class Ndfa {
 
@@ -15,17 +22,150 @@ public class Ndfa {
   private final Map<String, Map<Character, Set<String>>> delta;
   private final String startState;
   private final Set<String> finalStates;
+  private final Map<String, Set<String>> epsilon;
+
+  // ε-closures, indexed like indexToState; null when there are no ε-transitions.
+  private final Map<String, Integer> stateToIndex;
+  private final List<String> indexToState;
+  private final BitSet[] closures;
 
   public Ndfa(Set<String> states,
               Set<Character> alphabet,
               Map<String, Map<Character, Set<String>>> delta,
               String startState,
               Set<String> finalStates) {
+    this(states, alphabet, delta, Map.of(), startState, finalStates);
+  }
+
+  public Ndfa(Set<String> states,
+              Set<Character> alphabet,
+              Map<String, Map<Character, Set<String>>> delta,
+              Map<String, Set<String>> epsilon,
+              String startState,
+              Set<String> finalStates) {
     this.states = Set.copyOf(states);
     this.alphabet = Set.copyOf(alphabet);
     this.delta = copyDelta(delta);
+    this.epsilon = copyEpsilon(epsilon);
     this.startState = startState;
     this.finalStates = Set.copyOf(finalStates);
+
+    if (this.epsilon.isEmpty()) {
+      this.stateToIndex = null;
+      this.indexToState = null;
+      this.closures = null;
+    } else {
+      this.stateToIndex = new HashMap<>();
+      this.indexToState = new ArrayList<>();
+      for (String state : this.states) {
+        indexOf(state);
+      }
+      for (Map.Entry<String, Set<String>> e : this.epsilon.entrySet()) {
+        indexOf(e.getKey());
+        for (String target : e.getValue()) {
+          indexOf(target);
+        }
+      }
+      this.closures = computeClosures();
+    }
+  }
+
+  private int indexOf(String state) {
+    return stateToIndex.computeIfAbsent(state, k -> {
+      indexToState.add(k);
+      return indexToState.size() - 1;
+    });
+  }
+
+  private static Map<String, Set<String>> copyEpsilon(Map<String, Set<String>> epsilon) {
+    Map<String, Set<String>> result = new HashMap<>();
+    for (Map.Entry<String, Set<String>> e : epsilon.entrySet()) {
+      if (e.getValue() != null && !e.getValue().isEmpty()) {
+        result.put(e.getKey(), Set.copyOf(e.getValue()));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Computes every state's ε-closure in one pass: Tarjan's algorithm condenses ε-cycles
+   * into strongly connected components and emits them sinks-first, so each component's
+   * closure is its members plus the already computed closures of its successors.
+   * States in one component share a single BitSet.
+   */
+  private BitSet[] computeClosures() {
+    int n = indexToState.size();
+    int[][] successors = new int[n][];
+    for (int v = 0; v < n; v++) {
+      Set<String> targets = epsilon.getOrDefault(indexToState.get(v), Set.of());
+      successors[v] = new int[targets.size()];
+      int k = 0;
+      for (String t : targets) {
+        successors[v][k++] = stateToIndex.get(t);
+      }
+    }
+
+    BitSet[] result = new BitSet[n];
+    int[] order = new int[n];
+    int[] low = new int[n];
+    int[] nextEdge = new int[n];
+    boolean[] onStack = new boolean[n];
+    Deque<Integer> sccStack = new ArrayDeque<>();
+    Deque<Integer> callStack = new ArrayDeque<>();
+    int counter = 0;
+
+    for (int root = 0; root < n; root++) {
+      if (order[root] != 0) {
+        continue;
+      }
+      callStack.push(root);
+      order[root] = low[root] = ++counter;
+      sccStack.push(root);
+      onStack[root] = true;
+
+      while (!callStack.isEmpty()) {
+        int v = callStack.peek();
+        if (nextEdge[v] < successors[v].length) {
+          int w = successors[v][nextEdge[v]++];
+          if (order[w] == 0) {
+            order[w] = low[w] = ++counter;
+            sccStack.push(w);
+            onStack[w] = true;
+            callStack.push(w);
+          } else if (onStack[w]) {
+            low[v] = Math.min(low[v], order[w]);
+          }
+          continue;
+        }
+        callStack.pop();
+        if (!callStack.isEmpty()) {
+          int parent = callStack.peek();
+          low[parent] = Math.min(low[parent], low[v]);
+        }
+        if (low[v] == order[v]) {
+          BitSet closure = new BitSet(n);
+          List<Integer> members = new ArrayList<>();
+          int w;
+          do {
+            w = sccStack.pop();
+            onStack[w] = false;
+            members.add(w);
+            closure.set(w);
+          } while (w != v);
+          for (int m : members) {
+            for (int t : successors[m]) {
+              if (result[t] != null) {
+                closure.or(result[t]);
+              }
+            }
+          }
+          for (int m : members) {
+            result[m] = closure;
+          }
+        }
+      }
+    }
+    return result;
   }
 
   private static Map<String, Map<Character, Set<String>>> copyDelta(
@@ -65,12 +205,85 @@ public class Ndfa {
     return Collections.unmodifiableSet(finalStates);
   }
 
+  public Map<String, Set<String>> getEpsilonTransitions() {
+    return Collections.unmodifiableMap(epsilon);
+  }
+
+  public boolean hasEpsilonTransitions() {
+    return closures != null;
+  }
+
+  /**
+   * Returns the given states together with every state reachable from them
+   * through ε-transitions alone.
+   */
+  public Set<String> epsilonClosure(Set<String> fromStates) {
+    if (closures == null) {
+      return new HashSet<>(fromStates);
+    }
+    BitSet bits = new BitSet(indexToState.size());
+    Set<String> result = new HashSet<>();
+    for (String state : fromStates) {
+      Integer index = stateToIndex.get(state);
+      if (index == null) {
+        result.add(state);
+      } else {
+        bits.or(closures[index]);
+      }
+    }
+    for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+      result.add(indexToState.get(i));
+    }
+    return result;
+  }
+
+  /**
+   * Returns an equivalent ε-free NDFA over the same states:
+   * δ'(q, a) = ⋃ δ(p, a) for p in closure(q), and q is final iff closure(q) contains a final state.
+   */
+  public Ndfa removeEpsilon() {
+    if (closures == null) {
+      return this;
+    }
+    Map<String, Map<Character, Set<String>>> newDelta = new HashMap<>();
+    Set<String> newFinalStates = new HashSet<>(finalStates);
+    for (String state : indexToState) {
+      BitSet closure = closures[stateToIndex.get(state)];
+      for (int i = closure.nextSetBit(0); i >= 0; i = closure.nextSetBit(i + 1)) {
+        String reachable = indexToState.get(i);
+        if (finalStates.contains(reachable)) {
+          newFinalStates.add(state);
+        }
+        Map<Character, Set<String>> transitions = delta.get(reachable);
+        if (transitions == null) {
+          continue;
+        }
+        for (Map.Entry<Character, Set<String>> t : transitions.entrySet()) {
+          newDelta.computeIfAbsent(state, k -> new HashMap<>())
+              .computeIfAbsent(t.getKey(), k -> new HashSet<>())
+              .addAll(t.getValue());
+        }
+      }
+    }
+    for (Map.Entry<String, Map<Character, Set<String>>> e : delta.entrySet()) {
+      if (!stateToIndex.containsKey(e.getKey())) {
+        newDelta.put(e.getKey(), e.getValue());
+      }
+    }
+    Set<String> newStates = new HashSet<>(states);
+    newStates.addAll(indexToState);
+    return new Ndfa(newStates, alphabet, newDelta, startState, newFinalStates);
+  }
+
   /**
    * Checks whether this FA is deterministic.
    * An FA is deterministic iff for every (state, symbol) there is at most one next state,
    * and there are no epsilon transitions.
    */
   public boolean isDeterministic() {
+    if (closures != null) {
+      return false;
+    }
     for (Map.Entry<String, Map<Character, Set<String>>> stateEntry : delta.entrySet()) {
       Map<Character, Set<String>> symbolTransitions = stateEntry.getValue();
       if (symbolTransitions == null) {
@@ -86,7 +299,9 @@ public class Ndfa {
   }
 
   /**
-   * Returns the set of states reachable from the given state set on the given symbol.
+   * Returns the set of states reachable from the given state set on the given symbol,
+   * closed under ε-transitions (using the precomputed closures).
+   * The input set is expected to be ε-closed already, as the sets returned here are.
    * Returns empty set if no transition exists.
    */
   public Set<String> transition(Set<String> fromStates, char symbol) {
@@ -100,6 +315,9 @@ public class Ndfa {
         }
       }
     }
+    if (closures != null && !result.isEmpty()) {
+      return epsilonClosure(result);
+    }
     return result;
   }
 }
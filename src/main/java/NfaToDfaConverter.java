@@ -5,6 +5,7 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
+import instrumentation.Instrumentation;
 
 /**
  * Converts a Non-deterministic Finite Automaton (NDFA) to a Deterministic
@@ -14,9 +15,10 @@ public class NfaToDfaConverter {
 
   /**
    * Converts the given NDFA to an equivalent DFA.
-   * DFA states are sets of NDFA states (subset construction).
+   * DFA states are ε-closed sets of NDFA states (subset construction).
    */
   public FiniteAutomaton convert(Ndfa ndfa) {
+    Instrumentation.Span span = Instrumentation.startNfaToDfa();
     Set<Character> alphabet = ndfa.getAlphabet();
     Set<String> ndfaFinalStates = ndfa.getFinalStates();
 
@@ -24,7 +26,7 @@ public class NfaToDfaConverter {
     Map<Set<String>, Map<Character, Set<String>>> dfaDelta = new HashMap<>();
     Queue<Set<String>> toProcess = new ArrayDeque<>();
 
-    Set<String> initial = Set.of(ndfa.getStartState());
+    Set<String> initial = canonicalSet(ndfa.epsilonClosure(Set.of(ndfa.getStartState())));
     dfaStates.add(initial);
     toProcess.add(initial);
 
@@ -75,6 +77,9 @@ public class NfaToDfaConverter {
       }
     }
 
+    if (Instrumentation.ENABLED) {
+      Instrumentation.recordNfaToDfa(span, ndfa.getStates().size(), dfaStates.size());
+    }
     return new FiniteAutomaton(dfaStatesNamed, alphabet, dfaDeltaSingle, dfaStartState, dfaFinalStates);
   }
 
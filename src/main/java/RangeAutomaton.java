@@ -0,0 +1,154 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import instrumentation.Instrumentation;
+
+/**
+ * Deterministic finite automaton whose transitions are labelled with char ranges.
+ * On construction the alphabet is compressed into equivalence classes
+ * ({@link AlphabetPartition}), and the transition table has one column per class
+ * instead of one per char, so even full-Unicode labels such as "any letter" need
+ * only a few columns per state.
+ */
+public final class RangeAutomaton implements Automaton {
+
+  private final AlphabetPartition partition;
+  private final int classCount;
+  private final int[] next; // state * classCount + class, -1 = reject
+  private final BitSet accepting;
+  private final int start;
+  private final int stateCount;
+
+  /**
+   * @throws IllegalArgumentException if two overlapping ranges leave one state for different targets
+   */
+  public RangeAutomaton(Set<String> states,
+                        Map<String, Map<CharRange, String>> delta,
+                        String startState,
+                        Set<String> finalStates) {
+    Map<String, Integer> ids = new HashMap<>();
+    for (String s : states) {
+      ids.putIfAbsent(s, ids.size());
+    }
+    ids.putIfAbsent(startState, ids.size());
+    for (Map<CharRange, String> transitions : delta.values()) {
+      for (String target : transitions.values()) {
+        ids.putIfAbsent(target, ids.size());
+      }
+    }
+    for (String from : delta.keySet()) {
+      ids.putIfAbsent(from, ids.size());
+    }
+
+    // One label per (from, to) pair: the classes only need to separate different targets.
+    List<Edge> edges = new ArrayList<>();
+    for (Map.Entry<String, Map<CharRange, String>> e : delta.entrySet()) {
+      checkDeterministic(e.getKey(), e.getValue());
+      Map<String, List<CharRange>> byTarget = new HashMap<>();
+      for (Map.Entry<CharRange, String> t : e.getValue().entrySet()) {
+        byTarget.computeIfAbsent(t.getValue(), k -> new ArrayList<>()).add(t.getKey());
+      }
+      for (Map.Entry<String, List<CharRange>> t : byTarget.entrySet()) {
+        edges.add(new Edge(ids.get(e.getKey()), ids.get(t.getKey()), t.getValue()));
+      }
+    }
+
+    List<List<CharRange>> labels = new ArrayList<>(edges.size());
+    for (Edge edge : edges) {
+      labels.add(edge.label);
+    }
+    this.partition = AlphabetPartition.of(labels);
+    this.classCount = partition.classCount();
+    this.stateCount = ids.size();
+    this.next = new int[stateCount * classCount];
+    Arrays.fill(next, -1);
+    for (Edge edge : edges) {
+      BitSet classes = partition.classesIn(edge.label);
+      for (int c = classes.nextSetBit(0); c >= 0; c = classes.nextSetBit(c + 1)) {
+        next[edge.from * classCount + c] = edge.to;
+      }
+    }
+    this.accepting = new BitSet(stateCount);
+    for (String f : finalStates) {
+      Integer id = ids.get(f);
+      if (id != null) {
+        accepting.set(id);
+      }
+    }
+    this.start = ids.get(startState);
+  }
+
+  /**
+   * Builds the range form of a map-based DFA, coalescing runs of consecutive chars
+   * that lead to the same state into one range.
+   */
+  public static RangeAutomaton from(FiniteAutomaton fa) {
+    Map<String, Map<CharRange, String>> delta = new HashMap<>();
+    for (Map.Entry<String, Map<Character, String>> e : fa.getDelta().entrySet()) {
+      Map<String, List<CharRange>> byTarget = new HashMap<>();
+      for (Map.Entry<Character, String> t : e.getValue().entrySet()) {
+        if (fa.getAlphabet().contains(t.getKey())) {
+          byTarget.computeIfAbsent(t.getValue(), k -> new ArrayList<>()).add(CharRange.of(t.getKey()));
+        }
+      }
+      Map<CharRange, String> ranges = new HashMap<>();
+      for (Map.Entry<String, List<CharRange>> t : byTarget.entrySet()) {
+        for (CharRange r : AlphabetPartition.merge(t.getValue())) {
+          ranges.put(r, t.getKey());
+        }
+      }
+      delta.put(e.getKey(), ranges);
+    }
+    return new RangeAutomaton(fa.getStates(), delta, fa.getStartState(), fa.getFinalStates());
+  }
+
+  private static void checkDeterministic(String state, Map<CharRange, String> transitions) {
+    List<Map.Entry<CharRange, String>> sorted = new ArrayList<>(transitions.entrySet());
+    sorted.sort(Map.Entry.comparingByKey());
+    Map.Entry<CharRange, String> reach = null; // entry reaching furthest right so far
+    for (Map.Entry<CharRange, String> cur : sorted) {
+      if (reach != null && reach.getKey().overlaps(cur.getKey())
+          && !reach.getValue().equals(cur.getValue())) {
+        throw new IllegalArgumentException("Non-deterministic transitions from " + state + ": "
+            + reach.getKey() + " -> " + reach.getValue() + ", " + cur.getKey() + " -> " + cur.getValue());
+      }
+      if (reach == null || cur.getKey().last() > reach.getKey().last()) {
+        reach = cur;
+      }
+    }
+  }
+
+  @Override
+  public boolean accepts(String input) {
+    if (Instrumentation.ENABLED) {
+      Instrumentation.recordMatch(input.length());
+    }
+    int state = start;
+    for (int i = 0; i < input.length(); i++) {
+      state = next[state * classCount + partition.classOf(input.charAt(i))];
+      if (state < 0) {
+        return false;
+      }
+    }
+    return accepting.get(state);
+  }
+
+  public AlphabetPartition getPartition() {
+    return partition;
+  }
+
+  public int stateCount() {
+    return stateCount;
+  }
+
+  public int classCount() {
+    return classCount;
+  }
+
+  private record Edge(int from, int to, List<CharRange> label) {
+  }
+}
@@ -0,0 +1,363 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Compiles a regular expression into an ε-free {@link Ndfa} using the Glushkov
+ * (position automaton) construction: one state per symbol occurrence plus the
+ * initial state, so a pattern with m symbol positions yields m + 1 states.
+ *
+ * <p>Syntax, by increasing precedence:
+ * <pre>
+ *   r|s      union
+ *   rs       concatenation
+ *   r* r+ r? star, plus, optional
+ *   (r)      grouping; () is the empty word ε
+ *   [abc]    character class, with ranges such as [a-z0-9]; [] matches nothing
+ *   \c       literal c, for any of the special characters | * + ? ( ) [ ] \ -
+ * </pre>
+ *
+ * <p>The pattern is parsed in one left-to-right pass, computing nullable, first and last
+ * sets bottom-up, so parsing is linear in the pattern length. The follow sets are
+ * bitsets over positions; their total size, like the transition count of any position
+ * automaton, can grow to m² in the worst case.
+ *
+ * <p>Character classes are kept as ranges. {@link #compile} has to expand them into one
+ * transition per char, because {@link Ndfa} is labelled with single chars, and rejects
+ * classes wider than {@link #MAX_EXPANDED_CLASS}; {@link #compileRanges} keeps the ranges
+ * and determinises straight into a {@link RangeAutomaton}, so a class covering every char
+ * costs one column instead of 65,536 transitions.
+ */
+public class RegexCompiler {
+
+  /** Widest character class {@link #compile} expands into single-char transitions. */
+  public static final int MAX_EXPANDED_CLASS = 4096;
+
+  /**
+   * @throws IllegalArgumentException if the pattern is malformed or has a character class
+   *                                  wider than {@link #MAX_EXPANDED_CLASS} chars
+   */
+  public Ndfa compile(String pattern) {
+    Parser parser = new Parser(pattern);
+    Fragment root = parser.parse();
+
+    List<char[]> positions = new ArrayList<>(parser.positions.size());
+    for (List<CharRange> label : parser.positions) {
+      positions.add(expand(label, pattern));
+    }
+    List<BitSet> follow = parser.follow;
+
+    Set<String> states = new HashSet<>();
+    Set<Character> alphabet = new TreeSet<>();
+    Map<String, Map<Character, Set<String>>> delta = new HashMap<>();
+    Set<String> finalStates = new HashSet<>();
+
+    states.add(stateName(0));
+    for (int p = 1; p <= positions.size(); p++) {
+      states.add(stateName(p));
+      for (char c : positions.get(p - 1)) {
+        alphabet.add(c);
+      }
+    }
+
+    addTransitions(delta, 0, root.first, positions);
+    for (int p = 1; p <= positions.size(); p++) {
+      addTransitions(delta, p, follow.get(p - 1), positions);
+    }
+
+    if (root.nullable) {
+      finalStates.add(stateName(0));
+    }
+    for (int p = root.last.nextSetBit(0); p >= 0; p = root.last.nextSetBit(p + 1)) {
+      finalStates.add(stateName(p + 1));
+    }
+
+    return new Ndfa(states, alphabet, delta, stateName(0), finalStates);
+  }
+
+  /**
+   * Compiles the pattern to a deterministic {@link RangeAutomaton} by subset construction
+   * over the position automaton, one elementary interval of the class boundaries at a time.
+   *
+   * @throws IllegalArgumentException if the pattern is malformed
+   */
+  public RangeAutomaton compileRanges(String pattern) {
+    Parser parser = new Parser(pattern);
+    Fragment root = parser.parse();
+    List<List<CharRange>> positions = parser.positions;
+
+    // Elementary intervals: between consecutive boundaries every label is all in or all out.
+    TreeSet<Integer> boundaries = new TreeSet<>();
+    for (List<CharRange> label : positions) {
+      for (CharRange r : label) {
+        boundaries.add((int) r.first());
+        boundaries.add(r.last() + 1);
+      }
+    }
+    int[] cuts = boundaries.stream().mapToInt(Integer::intValue).toArray();
+    List<CharRange> intervals = new ArrayList<>();
+    List<BitSet> positionsIn = new ArrayList<>(); // positions whose label covers the interval
+    for (int b = 0; b + 1 < cuts.length; b++) {
+      CharRange interval = CharRange.of((char) cuts[b], (char) (cuts[b + 1] - 1));
+      BitSet in = new BitSet();
+      for (int p = 0; p < positions.size(); p++) {
+        for (CharRange r : positions.get(p)) {
+          if (r.contains(interval.first())) {
+            in.set(p);
+            break;
+          }
+        }
+      }
+      if (!in.isEmpty()) {
+        intervals.add(interval);
+        positionsIn.add(in);
+      }
+    }
+
+    // DFA states are sets of positions; the start state is the empty set plus the initial state.
+    Map<BitSet, String> names = new HashMap<>();
+    List<BitSet> pending = new ArrayList<>();
+    Map<String, Map<CharRange, String>> delta = new HashMap<>();
+    Set<String> finalStates = new HashSet<>();
+    BitSet start = new BitSet();
+    start.set(positions.size()); // marks the initial state, which has no position of its own
+    names.put(start, stateName(0));
+    pending.add(start);
+    for (int i = 0; i < pending.size(); i++) {
+      BitSet set = pending.get(i);
+      String name = names.get(set);
+      BitSet reachable;
+      if (set.get(positions.size())) {
+        reachable = (BitSet) root.first.clone();
+        if (root.nullable) {
+          finalStates.add(name);
+        }
+      } else {
+        reachable = new BitSet();
+        for (int p = set.nextSetBit(0); p >= 0; p = set.nextSetBit(p + 1)) {
+          reachable.or(parser.follow.get(p));
+        }
+        if (set.intersects(root.last)) {
+          finalStates.add(name);
+        }
+      }
+      for (int k = 0; k < intervals.size(); k++) {
+        BitSet target = (BitSet) reachable.clone();
+        target.and(positionsIn.get(k));
+        if (target.isEmpty()) {
+          continue;
+        }
+        String targetName = names.get(target);
+        if (targetName == null) {
+          targetName = stateName(names.size());
+          names.put(target, targetName);
+          pending.add(target);
+        }
+        delta.computeIfAbsent(name, s -> new HashMap<>()).put(intervals.get(k), targetName);
+      }
+    }
+    return new RangeAutomaton(new HashSet<>(names.values()), delta, stateName(0), finalStates);
+  }
+
+  private static char[] expand(List<CharRange> label, String pattern) {
+    int size = 0;
+    for (CharRange r : label) {
+      size += r.size();
+    }
+    if (size > MAX_EXPANDED_CLASS) {
+      throw new IllegalArgumentException("Character class of " + size + " chars is wider than "
+          + MAX_EXPANDED_CLASS + "; use compileRanges for pattern: " + pattern);
+    }
+    char[] chars = new char[size];
+    int i = 0;
+    for (CharRange r : label) {
+      for (int c = r.first(); c <= r.last(); c++) {
+        chars[i++] = (char) c;
+      }
+    }
+    return chars;
+  }
+
+  private static void addTransitions(Map<String, Map<Character, Set<String>>> delta,
+                                     int from, BitSet targets, List<char[]> positions) {
+    for (int p = targets.nextSetBit(0); p >= 0; p = targets.nextSetBit(p + 1)) {
+      for (char c : positions.get(p)) {
+        delta.computeIfAbsent(stateName(from), k -> new HashMap<>())
+            .computeIfAbsent(c, k -> new HashSet<>())
+            .add(stateName(p + 1));
+      }
+    }
+  }
+
+  private static String stateName(int position) {
+    return "q" + position;
+  }
+
+  /** Nullable flag and first/last position sets of a sub-expression (positions are 0-based). */
+  private static final class Fragment {
+    boolean nullable;
+    BitSet first = new BitSet();
+    BitSet last = new BitSet();
+
+    static Fragment epsilon() {
+      Fragment f = new Fragment();
+      f.nullable = true;
+      return f;
+    }
+  }
+
+  private static final class Parser {
+    private final String pattern;
+    private int pos;
+    final List<List<CharRange>> positions = new ArrayList<>();
+    final List<BitSet> follow = new ArrayList<>();
+
+    Parser(String pattern) {
+      this.pattern = pattern;
+    }
+
+    Fragment parse() {
+      Fragment f = union();
+      if (pos < pattern.length()) {
+        throw error("Unexpected '" + pattern.charAt(pos) + "'");
+      }
+      return f;
+    }
+
+    private Fragment union() {
+      Fragment result = concatenation();
+      while (pos < pattern.length() && pattern.charAt(pos) == '|') {
+        pos++;
+        Fragment right = concatenation();
+        result.nullable |= right.nullable;
+        result.first.or(right.first);
+        result.last.or(right.last);
+      }
+      return result;
+    }
+
+    private Fragment concatenation() {
+      Fragment result = Fragment.epsilon();
+      while (pos < pattern.length() && pattern.charAt(pos) != '|' && pattern.charAt(pos) != ')') {
+        Fragment right = repetition();
+        linkFollow(result.last, right.first);
+        if (result.nullable) {
+          result.first.or(right.first);
+        }
+        if (right.nullable) {
+          result.last.or(right.last);
+        } else {
+          result.last = right.last;
+        }
+        result.nullable &= right.nullable;
+      }
+      return result;
+    }
+
+    private Fragment repetition() {
+      Fragment f = atom();
+      while (pos < pattern.length()) {
+        char op = pattern.charAt(pos);
+        if (op == '*' || op == '+') {
+          linkFollow(f.last, f.first);
+          f.nullable |= op == '*';
+        } else if (op == '?') {
+          f.nullable = true;
+        } else {
+          break;
+        }
+        pos++;
+      }
+      return f;
+    }
+
+    private Fragment atom() {
+      char c = pattern.charAt(pos);
+      switch (c) {
+        case '(': {
+          pos++;
+          Fragment inner = union();
+          expect(')');
+          return inner;
+        }
+        case '[':
+          pos++;
+          return position(characterClass());
+        case '\\':
+          pos++;
+          return position(List.of(CharRange.of(literal())));
+        case '*':
+        case '+':
+        case '?':
+          throw error("Nothing to repeat before '" + c + "'");
+        case ']':
+          throw error("Unbalanced ']'");
+        default:
+          pos++;
+          return position(List.of(CharRange.of(c)));
+      }
+    }
+
+    private List<CharRange> characterClass() {
+      List<CharRange> ranges = new ArrayList<>();
+      while (pos < pattern.length() && pattern.charAt(pos) != ']') {
+        char from = classChar();
+        char to = from;
+        if (pos + 1 < pattern.length() && pattern.charAt(pos) == '-' && pattern.charAt(pos + 1) != ']') {
+          pos++;
+          to = classChar();
+          if (to < from) {
+            throw error("Invalid range " + from + "-" + to);
+          }
+        }
+        ranges.add(CharRange.of(from, to));
+      }
+      expect(']');
+      return AlphabetPartition.merge(ranges);
+    }
+
+    private char classChar() {
+      char c = pattern.charAt(pos++);
+      return c == '\\' ? literal() : c;
+    }
+
+    private char literal() {
+      if (pos >= pattern.length()) {
+        throw error("Dangling escape");
+      }
+      return pattern.charAt(pos++);
+    }
+
+    private Fragment position(List<CharRange> symbols) {
+      int p = positions.size();
+      positions.add(symbols);
+      follow.add(new BitSet());
+      Fragment f = new Fragment();
+      f.first.set(p);
+      f.last.set(p);
+      return f;
+    }
+
+    private void linkFollow(BitSet from, BitSet to) {
+      for (int p = from.nextSetBit(0); p >= 0; p = from.nextSetBit(p + 1)) {
+        follow.get(p).or(to);
+      }
+    }
+
+    private void expect(char c) {
+      if (pos >= pattern.length() || pattern.charAt(pos) != c) {
+        throw error("Expected '" + c + "'");
+      }
+      pos++;
+    }
+
+    private IllegalArgumentException error(String message) {
+      return new IllegalArgumentException(message + " at position " + pos + " in pattern: " + pattern);
+    }
+  }
+}
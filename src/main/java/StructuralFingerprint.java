@@ -0,0 +1,508 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Canonical structural fingerprint of a {@link Grammar}, {@link Ndfa} or {@link FiniteAutomaton}.
+ * States (non-terminals) are renumbered by a breadth-first walk from the start state whose
+ * tie-breaks use colour refinement; states unreachable from the start are numbered from the
+ * root, among the smallest colour class, whose reachable part encodes smallest. State names
+ * never take part, so for DFAs the fingerprint does not depend on names or on {@code HashMap}
+ * iteration order. In an NDFA or grammar, equally coloured targets of equally labelled edges
+ * are taken in input order, so isomorphic inputs may rarely get different keys (a cache
+ * miss, never a wrong hit). Two fingerprints are equal only if their canonical encodings
+ * are byte-for-byte equal, so equal keys always denote isomorphic structures.
+ */
+public final class StructuralFingerprint {
+
+  private static final byte KIND_DFA = 1;
+  private static final byte KIND_NDFA = 2;
+  private static final byte KIND_GRAMMAR = 3;
+
+  /** Marks a non-terminal position inside a production shape. */
+  private static final char NON_TERMINAL_SLOT = '\uFFFF';
+
+  private final byte[] encoding;
+  private final long hash;
+
+  private StructuralFingerprint(byte[] encoding) {
+    this.encoding = encoding;
+    this.hash = hash64(encoding);
+  }
+
+  public static StructuralFingerprint of(FiniteAutomaton fa) {
+    Structure s = new Structure(KIND_DFA);
+    for (String state : fa.getStates()) {
+      s.node(state);
+    }
+    s.start = s.node(fa.getStartState());
+    for (String f : fa.getFinalStates()) {
+      s.finals.add(s.node(f));
+    }
+    for (Map.Entry<String, Map<Character, String>> e : fa.getDelta().entrySet()) {
+      int from = s.node(e.getKey());
+      for (Map.Entry<Character, String> t : e.getValue().entrySet()) {
+        s.edge(from, String.valueOf(t.getKey()), s.node(t.getValue()));
+      }
+    }
+    for (Character c : fa.getAlphabet()) {
+      s.symbols.add(String.valueOf(c));
+    }
+    return s.fingerprint();
+  }
+
+  public static StructuralFingerprint of(Ndfa ndfa) {
+    Structure s = new Structure(KIND_NDFA);
+    for (String state : ndfa.getStates()) {
+      s.node(state);
+    }
+    s.start = s.node(ndfa.getStartState());
+    for (String f : ndfa.getFinalStates()) {
+      s.finals.add(s.node(f));
+    }
+    for (Map.Entry<String, Map<Character, Set<String>>> e : ndfa.getDelta().entrySet()) {
+      int from = s.node(e.getKey());
+      for (Map.Entry<Character, Set<String>> t : e.getValue().entrySet()) {
+        for (String target : t.getValue()) {
+          s.edge(from, String.valueOf(t.getKey()), s.node(target));
+        }
+      }
+    }
+    for (Map.Entry<String, Set<String>> e : ndfa.getEpsilonTransitions().entrySet()) {
+      int from = s.node(e.getKey());
+      for (String target : e.getValue()) {
+        s.edge(from, "", s.node(target)); // symbol labels are never empty
+      }
+    }
+    for (Character c : ndfa.getAlphabet()) {
+      s.symbols.add(String.valueOf(c));
+    }
+    return s.fingerprint();
+  }
+
+  /**
+   * Productions are treated as a multiset per non-terminal, so their order in the
+   * production lists does not affect the fingerprint.
+   */
+  public static StructuralFingerprint of(Grammar grammar) {
+    Structure s = new Structure(KIND_GRAMMAR);
+    Set<String> nonTerminals = grammar.getNonTerminals();
+    for (String nt : nonTerminals) {
+      s.node(nt);
+    }
+    s.start = s.node(grammar.getStartSymbol());
+    for (Map.Entry<String, List<String>> e : grammar.getProductions().entrySet()) {
+      int from = s.node(e.getKey());
+      for (String right : e.getValue()) {
+        String rhs = "ε".equals(right) ? "" : right;
+        StringBuilder shape = new StringBuilder(rhs.length());
+        List<Integer> targets = new ArrayList<>();
+        for (int i = 0; i < rhs.length(); i++) {
+          String sym = String.valueOf(rhs.charAt(i));
+          if (nonTerminals.contains(sym)) {
+            shape.append(NON_TERMINAL_SLOT);
+            targets.add(s.node(sym));
+          } else {
+            shape.append(rhs.charAt(i));
+          }
+        }
+        s.edge(from, shape.toString(), targets.stream().mapToInt(Integer::intValue).toArray());
+      }
+    }
+    s.symbols.addAll(grammar.getTerminals());
+    return s.fingerprint();
+  }
+
+  /** Size of the canonical encoding in bytes; a reasonable weight for cache bounds. */
+  public int size() {
+    return encoding.length;
+  }
+
+  public long hash64() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof StructuralFingerprint other)) {
+      return false;
+    }
+    return hash == other.hash && Arrays.equals(encoding, other.encoding);
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(hash);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("StructuralFingerprint{%016x, %d bytes}", hash, encoding.length);
+  }
+
+  private static long hash64(byte[] data) {
+    long h = 0xcbf29ce484222325L; // FNV-1a offset basis
+    for (byte b : data) {
+      h ^= b & 0xFF;
+      h *= 0x100000001b3L;
+    }
+    return mix(h);
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+  /** Labelled graph all three source types are reduced to before canonicalisation. */
+  private static final class Structure {
+    private final byte kind;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<Edge> edges = new ArrayList<>();
+    private final Set<Integer> finals = new HashSet<>();
+    private final Set<String> symbols = new TreeSet<>();
+    private int start;
+
+    Structure(byte kind) {
+      this.kind = kind;
+    }
+
+    int node(String name) {
+      return ids.computeIfAbsent(name, k -> {
+        names.add(k);
+        return names.size() - 1;
+      });
+    }
+
+    void edge(int from, String label, int... targets) {
+      edges.add(new Edge(from, label, targets));
+    }
+
+    StructuralFingerprint fingerprint() {
+      int n = names.size();
+      long[] colour = refineColours(n);
+
+      List<List<Edge>> out = new ArrayList<>(n);
+      for (int i = 0; i < n; i++) {
+        out.add(new ArrayList<>());
+      }
+      for (Edge e : edges) {
+        out.get(e.from).add(e);
+      }
+      Comparator<Edge> edgeOrder = Comparator.comparing((Edge e) -> e.label)
+          .thenComparing((a, b) -> compareTargets(a.targets, b.targets, colour));
+
+      // Breadth-first renumbering from the start state. State names never take part.
+      int[] canonical = new int[n];
+      Arrays.fill(canonical, -1);
+      int next = number(start, 0, canonical, out, edgeOrder).size();
+
+      // Unreachable states: roots are taken from source components (no edge enters them from
+      // another unnumbered component); among those of the smallest colour, the root whose
+      // forward closure encodes smallest is numbered next, until every state has a number.
+      Map<String, Integer> labelIds = labelIds();
+      int[] component = next < n ? components(canonical, out) : null;
+      while (next < n) {
+        boolean[] entered = new boolean[n];
+        for (Edge e : edges) {
+          if (canonical[e.from] < 0) {
+            for (int t : e.targets) {
+              if (canonical[t] < 0 && component[t] != component[e.from]) {
+                entered[component[t]] = true;
+              }
+            }
+          }
+        }
+        long minColour = Long.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+          if (canonical[i] < 0 && !entered[component[i]] && colour[i] < minColour) {
+            minColour = colour[i];
+          }
+        }
+        int bestRoot = -1;
+        int[] bestCode = null;
+        for (int root = 0; root < n; root++) {
+          if (canonical[root] >= 0 || entered[component[root]] || colour[root] != minColour) {
+            continue;
+          }
+          List<Integer> numbered = number(root, next, canonical, out, edgeOrder);
+          int[] code = encodeComponent(numbered, canonical, out, edgeOrder, labelIds);
+          for (int i : numbered) {
+            canonical[i] = -1;
+          }
+          if (bestCode == null || Arrays.compare(code, bestCode) < 0) {
+            bestRoot = root;
+            bestCode = code;
+          }
+        }
+        next += number(bestRoot, next, canonical, out, edgeOrder).size();
+      }
+
+      List<int[]> encodedEdges = new ArrayList<>(edges.size());
+      List<String> labels = new ArrayList<>(edges.size());
+      Integer[] order = new Integer[edges.size()];
+      for (int i = 0; i < edges.size(); i++) {
+        Edge e = edges.get(i);
+        int[] targets = new int[e.targets.length];
+        for (int j = 0; j < targets.length; j++) {
+          targets[j] = canonical[e.targets[j]];
+        }
+        encodedEdges.add(targets);
+        labels.add(e.label);
+        order[i] = i;
+      }
+      Arrays.sort(order, Comparator.comparingInt((Integer i) -> canonical[edges.get(i).from])
+          .thenComparing(i -> labels.get(i))
+          .thenComparing((a, b) -> Arrays.compare(encodedEdges.get(a), encodedEdges.get(b))));
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream data = new DataOutputStream(bytes)) {
+        data.writeByte(kind);
+        data.writeInt(symbols.size());
+        for (String sym : symbols) {
+          data.writeUTF(sym);
+        }
+        data.writeInt(n);
+        data.writeInt(canonical[start]);
+        int[] finalIds = finals.stream().mapToInt(f -> canonical[f]).sorted().toArray();
+        data.writeInt(finalIds.length);
+        for (int f : finalIds) {
+          data.writeInt(f);
+        }
+        data.writeInt(order.length);
+        for (int i : order) {
+          data.writeInt(canonical[edges.get(i).from]);
+          data.writeUTF(labels.get(i));
+          int[] targets = encodedEdges.get(i);
+          data.writeInt(targets.length);
+          for (int t : targets) {
+            data.writeInt(t);
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return new StructuralFingerprint(bytes.toByteArray());
+    }
+
+    /**
+     * Colour refinement: a state's colour is repeatedly combined with the sorted
+     * multiset of (label, target colours) of its outgoing edges and (label, source colour)
+     * of its incoming ones until the number of distinct colours stops growing.
+     */
+    private long[] refineColours(int n) {
+      long[] colour = new long[n];
+      for (int i = 0; i < n; i++) {
+        colour[i] = (i == start ? 1 : 0) | (finals.contains(i) ? 2 : 0);
+      }
+      int distinct = countDistinct(colour);
+      for (int round = 0; round < n; round++) {
+        long[][] signatures = new long[n][];
+        int[] fill = new int[n];
+        for (Edge e : edges) {
+          fill[e.from]++;
+          for (int t : e.targets) {
+            fill[t]++;
+          }
+        }
+        for (int i = 0; i < n; i++) {
+          signatures[i] = new long[fill[i]];
+          fill[i] = 0;
+        }
+        for (Edge e : edges) {
+          long h = e.label.hashCode();
+          for (int t : e.targets) {
+            h = mix(h * 31 + colour[t]);
+          }
+          signatures[e.from][fill[e.from]++] = h;
+          for (int j = 0; j < e.targets.length; j++) {
+            int t = e.targets[j];
+            signatures[t][fill[t]++] = ~mix((e.label.hashCode() * 31L + j) * 31 + colour[e.from]);
+          }
+        }
+        long[] refined = new long[n];
+        for (int i = 0; i < n; i++) {
+          Arrays.sort(signatures[i]);
+          long h = mix(colour[i]);
+          for (long sig : signatures[i]) {
+            h = mix(h * 31 + sig);
+          }
+          refined[i] = h;
+        }
+        int refinedDistinct = countDistinct(refined);
+        colour = refined;
+        if (refinedDistinct == distinct) {
+          break;
+        }
+        distinct = refinedDistinct;
+      }
+      return colour;
+    }
+
+    private static int countDistinct(long[] values) {
+      return (int) Arrays.stream(values).distinct().count();
+    }
+
+    private static int compareTargets(int[] a, int[] b, long[] colour) {
+      int len = Math.min(a.length, b.length);
+      for (int i = 0; i < len; i++) {
+        int c = Long.compare(colour[a[i]], colour[b[i]]);
+        if (c != 0) {
+          return c;
+        }
+      }
+      return Integer.compare(a.length, b.length);
+    }
+
+    /**
+     * Numbers the not yet numbered states reachable from {@code root} breadth-first,
+     * starting at {@code first}; returns them in numbering order.
+     */
+    private static List<Integer> number(int root, int first, int[] canonical,
+                                        List<List<Edge>> out, Comparator<Edge> edgeOrder) {
+      List<Integer> numbered = new ArrayList<>();
+      Queue<Integer> queue = new ArrayDeque<>();
+      canonical[root] = first + numbered.size();
+      numbered.add(root);
+      queue.add(root);
+      while (!queue.isEmpty()) {
+        List<Edge> sorted = new ArrayList<>(out.get(queue.poll()));
+        sorted.sort(edgeOrder);
+        for (Edge e : sorted) {
+          for (int t : e.targets) {
+            if (canonical[t] < 0) {
+              canonical[t] = first + numbered.size();
+              numbered.add(t);
+              queue.add(t);
+            }
+          }
+        }
+      }
+      return numbered;
+    }
+
+    /**
+     * Strongly connected components (Tarjan, iterative) of the subgraph of unnumbered
+     * states; numbered states get -1.
+     */
+    private static int[] components(int[] canonical, List<List<Edge>> out) {
+      int n = canonical.length;
+      int[] component = new int[n];
+      int[] index = new int[n];
+      int[] low = new int[n];
+      int[] edgePos = new int[n];
+      int[] targetPos = new int[n];
+      boolean[] onStack = new boolean[n];
+      Arrays.fill(component, -1);
+      Arrays.fill(index, -1);
+      int[] stack = new int[n];
+      int[] callStack = new int[n];
+      int stackSize = 0;
+      int counter = 0;
+      int components = 0;
+      for (int root = 0; root < n; root++) {
+        if (canonical[root] >= 0 || index[root] >= 0) {
+          continue;
+        }
+        int depth = 0;
+        callStack[depth++] = root;
+        index[root] = low[root] = counter++;
+        stack[stackSize++] = root;
+        onStack[root] = true;
+        while (depth > 0) {
+          int v = callStack[depth - 1];
+          List<Edge> vOut = out.get(v);
+          int w = -1;
+          while (edgePos[v] < vOut.size()) {
+            int[] targets = vOut.get(edgePos[v]).targets;
+            if (targetPos[v] < targets.length) {
+              int t = targets[targetPos[v]++];
+              if (canonical[t] < 0) {
+                w = t;
+                break;
+              }
+            } else {
+              edgePos[v]++;
+              targetPos[v] = 0;
+            }
+          }
+          if (w >= 0) {
+            if (index[w] < 0) {
+              index[w] = low[w] = counter++;
+              stack[stackSize++] = w;
+              onStack[w] = true;
+              callStack[depth++] = w;
+            } else if (onStack[w]) {
+              low[v] = Math.min(low[v], index[w]);
+            }
+            continue;
+          }
+          depth--;
+          if (depth > 0) {
+            int parent = callStack[depth - 1];
+            low[parent] = Math.min(low[parent], low[v]);
+          }
+          if (low[v] == index[v]) {
+            int u;
+            do {
+              u = stack[--stackSize];
+              onStack[u] = false;
+              component[u] = components;
+            } while (u != v);
+            components++;
+          }
+        }
+      }
+      return component;
+    }
+
+    /** Name-free code of the given freshly numbered states and their outgoing edges. */
+    private int[] encodeComponent(List<Integer> states, int[] canonical, List<List<Edge>> out,
+                                  Comparator<Edge> edgeOrder, Map<String, Integer> labelIds) {
+      List<Integer> code = new ArrayList<>();
+      code.add(states.size());
+      for (int state : states) {
+        List<Edge> sorted = new ArrayList<>(out.get(state));
+        sorted.sort(edgeOrder);
+        code.add(finals.contains(state) ? 1 : 0);
+        code.add(sorted.size());
+        for (Edge e : sorted) {
+          code.add(labelIds.get(e.label));
+          code.add(e.targets.length);
+          for (int t : e.targets) {
+            code.add(canonical[t]);
+          }
+        }
+      }
+      return code.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private Map<String, Integer> labelIds() {
+      Map<String, Integer> ids = new HashMap<>();
+      for (String label : new TreeSet<>(edges.stream().map(Edge::label).toList())) {
+        ids.put(label, ids.size());
+      }
+      return ids;
+    }
+  }
+
+  private record Edge(int from, String label, int[] targets) {
+  }
+}
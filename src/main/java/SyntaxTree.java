@@ -0,0 +1,225 @@
+import java.util.Arrays;
+
+/**
+ * Syntax tree stored in parallel int arrays (an arena) instead of one object per node.
+ * Node 0 is the root. Children are linked through {@link #firstChild} and
+ * {@link #nextSibling} (-1 when absent). A node's symbol is a terminal index
+ * ({@code >= 0}) or {@code ~nonTerminal}; terminals record the index of the token they
+ * matched, non-terminals the production they were expanded with.
+ *
+ * <p>The LL(1) driver first builds the full derivation tree, with a node for every
+ * expansion including ε ones; {@link #compact()} turns that into the abstract tree
+ * {@link Ll1Parser#parse} returns, where a non-terminal keeps its node only if it
+ * has two or more non-empty children.
+ */
+public final class SyntaxTree {
+
+  private final FirstFollow sets;
+  private int[] symbol;
+  private int[] firstChild;
+  private int[] nextSibling;
+  private int[] payload; // token index for terminals, production for non-terminals
+  private int size;
+
+  SyntaxTree(FirstFollow sets, int capacity) {
+    this.sets = sets;
+    int c = Math.max(capacity, 16);
+    symbol = new int[c];
+    firstChild = new int[c];
+    nextSibling = new int[c];
+    payload = new int[c];
+  }
+
+  int add(int sym) {
+    if (size == symbol.length) {
+      int c = size * 2;
+      symbol = Arrays.copyOf(symbol, c);
+      firstChild = Arrays.copyOf(firstChild, c);
+      nextSibling = Arrays.copyOf(nextSibling, c);
+      payload = Arrays.copyOf(payload, c);
+    }
+    symbol[size] = sym;
+    firstChild[size] = -1;
+    nextSibling[size] = -1;
+    payload[size] = -1;
+    return size++;
+  }
+
+  void setFirstChild(int node, int child) {
+    firstChild[node] = child;
+  }
+
+  void setNextSibling(int node, int sibling) {
+    nextSibling[node] = sibling;
+  }
+
+  void setPayload(int node, int value) {
+    payload[node] = value;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int firstChild(int node) {
+    return firstChild[node];
+  }
+
+  public int nextSibling(int node) {
+    return nextSibling[node];
+  }
+
+  int symbol(int node) {
+    return symbol[node];
+  }
+
+  public boolean isTerminal(int node) {
+    return symbol[node] >= 0;
+  }
+
+  /** Index into the parsed token list, for terminal nodes. */
+  public int tokenIndex(int node) {
+    return isTerminal(node) ? payload[node] : -1;
+  }
+
+  /** Grammar symbol of the node: the non-terminal name or the terminal char. */
+  public String symbolName(int node) {
+    int s = symbol[node];
+    return s >= 0 ? String.valueOf(sets.terminal(s)) : sets.nonTerminal(~s);
+  }
+
+  /** Production used to expand a non-terminal node, e.g. {@code E → AR}. */
+  public String production(int node) {
+    return isTerminal(node) || payload[node] < 0 ? null : sets.productionText(payload[node]);
+  }
+
+  /**
+   * Abstract tree of this derivation tree: non-terminals that derived ε are dropped, and
+   * a non-terminal left with a single child is replaced by that child, so a chain like
+   * {@code E → A R, A → T X, T → F Y, F → n} with empty {@code R}, {@code X}, {@code Y}
+   * becomes the one terminal {@code n}. An empty derivation keeps just the root.
+   */
+  public SyntaxTree compact() {
+    // Children are always added after their parent, so descending index order visits
+    // every child before its parent and no recursion is needed.
+    int[] replacement = new int[size];
+    int[] keptFirst = new int[size];
+    int[] keptNext = new int[size];
+    Arrays.fill(keptNext, -1);
+    for (int node = size - 1; node >= 0; node--) {
+      keptFirst[node] = -1;
+      if (isTerminal(node)) {
+        replacement[node] = node;
+        continue;
+      }
+      int count = 0;
+      int tail = -1;
+      for (int c = firstChild[node]; c >= 0; c = nextSibling[c]) {
+        int kept = replacement[c];
+        if (kept < 0) {
+          continue;
+        }
+        if (tail < 0) {
+          keptFirst[node] = kept;
+        } else {
+          keptNext[tail] = kept;
+        }
+        tail = kept;
+        count++;
+      }
+      replacement[node] = count == 0 ? -1 : count == 1 ? keptFirst[node] : node;
+    }
+
+    SyntaxTree tree = new SyntaxTree(sets, size);
+    int root = size == 0 ? -1 : replacement[0] >= 0 ? replacement[0] : 0;
+    if (root < 0) {
+      return tree;
+    }
+    // Copy in pre-order. Stack entries are (old node, new node to link from, link kind):
+    // kind 1 makes the copy the first child of that node, kind 2 its next sibling.
+    int[] stack = new int[48];
+    int top = 0;
+    stack[top++] = root;
+    stack[top++] = -1;
+    stack[top++] = 0;
+    while (top > 0) {
+      int kind = stack[--top];
+      int from = stack[--top];
+      int old = stack[--top];
+      int copy = tree.add(symbol[old]);
+      tree.setPayload(copy, payload[old]);
+      if (kind == 1) {
+        tree.setFirstChild(from, copy);
+      } else if (kind == 2) {
+        tree.setNextSibling(from, copy);
+      }
+      if (top + 6 > stack.length) {
+        stack = Arrays.copyOf(stack, stack.length * 2);
+      }
+      if (old != root && keptNext[old] >= 0) {
+        stack[top++] = keptNext[old];
+        stack[top++] = copy;
+        stack[top++] = 2;
+      }
+      if (keptFirst[old] >= 0) {
+        stack[top++] = keptFirst[old];
+        stack[top++] = copy;
+        stack[top++] = 1;
+      }
+    }
+    return tree;
+  }
+
+  /**
+   * One node per line, children indented under their parent. A last child with the same
+   * symbol as its parent continues a right-recursive list ({@code P → S P}) and is printed
+   * at the parent's depth, so a long statement list stays flat instead of drifting right.
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    if (size > 0) {
+      print(sb);
+    }
+    return sb.toString();
+  }
+
+  /** Pre-order walk with an explicit stack of (node, parent, parent's depth) triples. */
+  private void print(StringBuilder sb) {
+    int[] stack = new int[48];
+    int top = 0;
+    stack[top++] = 0;
+    stack[top++] = -1;
+    stack[top++] = -1;
+    while (top > 0) {
+      int parentDepth = stack[--top];
+      int parent = stack[--top];
+      int node = stack[--top];
+      boolean continuesList = parent >= 0 && nextSibling[node] < 0 && symbol[node] == symbol[parent];
+      int depth = continuesList ? parentDepth : parentDepth + 1;
+
+      for (int i = 0; i < depth; i++) {
+        sb.append("  ");
+      }
+      sb.append(symbolName(node));
+      if (isTerminal(node)) {
+        sb.append(" #").append(payload[node]);
+      }
+      sb.append('\n');
+
+      if (top + 6 > stack.length) {
+        stack = Arrays.copyOf(stack, stack.length * 2);
+      }
+      if (nextSibling[node] >= 0) {
+        stack[top++] = nextSibling[node];
+        stack[top++] = parent;
+        stack[top++] = parentDepth;
+      }
+      if (firstChild[node] >= 0) {
+        stack[top++] = firstChild[node];
+        stack[top++] = node;
+        stack[top++] = depth;
+      }
+    }
+  }
+}
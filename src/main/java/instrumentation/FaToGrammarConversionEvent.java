@@ -0,0 +1,20 @@
+package instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("lfa.FaToGrammarConversion")
+@Label("FA to Grammar Conversion")
+@Category("LFA")
+@Description("FaToRegularGrammarConverter.convert")
+class FaToGrammarConversionEvent extends Event {
+
+  @Label("States")
+  int states;
+
+  @Label("Productions")
+  int productions;
+}
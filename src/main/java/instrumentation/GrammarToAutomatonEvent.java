@@ -0,0 +1,23 @@
+package instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("lfa.GrammarToAutomaton")
+@Label("Grammar to Automaton")
+@Category("LFA")
+@Description("Grammar.toFiniteAutomaton")
+class GrammarToAutomatonEvent extends Event {
+
+  @Label("Non-terminals")
+  int nonTerminals;
+
+  @Label("Productions")
+  int productions;
+
+  @Label("States")
+  int states;
+}
@@ -0,0 +1,199 @@
+package instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.Event;
+
+/**
+ * Opt-in instrumentation for conversions, matching and lexing.
+ * Enabled with {@code -Dlfa.instrumentation=true}. {@link #ENABLED} is a static final
+ * constant, so when it is false the JIT folds every guarded call site away and the
+ * hot paths pay nothing. When enabled, each operation bumps {@link LongAdder} counters
+ * (readable via {@link #counters()} and the {@code lfa:type=Instrumentation} MXBean)
+ * and commits a JFR event if a recording has that event enabled. The event is begun when
+ * the operation starts, so JFR's built-in start time and duration cover the whole operation.
+ *
+ * <pre>
+ * Instrumentation.Span span = Instrumentation.startLexing();
+ * ...
+ * if (Instrumentation.ENABLED) {
+ *   Instrumentation.recordLexing(span, chars, tokens);
+ * }
+ * </pre>
+ */
+public final class Instrumentation {
+
+  public static final boolean ENABLED = Boolean.getBoolean("lfa.instrumentation");
+
+  public static final String MBEAN_NAME = "lfa:type=Instrumentation";
+
+  private static final LongAdder NFA_TO_DFA_CONVERSIONS = new LongAdder();
+  private static final LongAdder SUBSETS_EXPLORED = new LongAdder();
+  private static final LongAdder NFA_TO_DFA_NANOS = new LongAdder();
+  private static final LongAdder GRAMMAR_TO_AUTOMATON_CONVERSIONS = new LongAdder();
+  private static final LongAdder GRAMMAR_TO_AUTOMATON_NANOS = new LongAdder();
+  private static final LongAdder FA_TO_GRAMMAR_CONVERSIONS = new LongAdder();
+  private static final LongAdder FA_TO_GRAMMAR_NANOS = new LongAdder();
+  private static final LongAdder MATCHES = new LongAdder();
+  private static final LongAdder MATCHED_SYMBOLS = new LongAdder();
+  private static final LongAdder LEXER_RUNS = new LongAdder();
+  private static final LongAdder LEXED_CHARS = new LongAdder();
+  private static final LongAdder LEXED_TOKENS = new LongAdder();
+  private static final LongAdder LEXING_NANOS = new LongAdder();
+
+  static {
+    if (ENABLED) {
+      try {
+        ManagementFactory.getPlatformMBeanServer()
+            .registerMBean(new Bean(), new ObjectName(MBEAN_NAME));
+      } catch (JMException e) {
+        System.err.println("Instrumentation MBean not registered: " + e.getMessage());
+      }
+    }
+  }
+
+  private Instrumentation() {
+  }
+
+  /** Starts timing a subset construction; {@code null} when disabled. */
+  public static Span startNfaToDfa() {
+    return ENABLED ? new Span(new NfaToDfaConversionEvent()) : null;
+  }
+
+  /** Starts timing {@code Grammar.toFiniteAutomaton}; {@code null} when disabled. */
+  public static Span startGrammarToAutomaton() {
+    return ENABLED ? new Span(new GrammarToAutomatonEvent()) : null;
+  }
+
+  /** Starts timing an FA to grammar conversion; {@code null} when disabled. */
+  public static Span startFaToGrammar() {
+    return ENABLED ? new Span(new FaToGrammarConversionEvent()) : null;
+  }
+
+  /** Starts timing one lexer run; {@code null} when disabled. */
+  public static Span startLexing() {
+    return ENABLED ? new Span(new LexingEvent()) : null;
+  }
+
+  public static void recordNfaToDfa(Span span, int nfaStates, int dfaStates) {
+    NFA_TO_DFA_CONVERSIONS.increment();
+    SUBSETS_EXPLORED.add(dfaStates);
+    NFA_TO_DFA_NANOS.add(span.end());
+    NfaToDfaConversionEvent event = (NfaToDfaConversionEvent) span.event;
+    if (event.shouldCommit()) {
+      event.nfaStates = nfaStates;
+      event.dfaStates = dfaStates;
+      event.commit();
+    }
+  }
+
+  public static void recordGrammarToAutomaton(Span span, int nonTerminals, int productions, int states) {
+    GRAMMAR_TO_AUTOMATON_CONVERSIONS.increment();
+    GRAMMAR_TO_AUTOMATON_NANOS.add(span.end());
+    GrammarToAutomatonEvent event = (GrammarToAutomatonEvent) span.event;
+    if (event.shouldCommit()) {
+      event.nonTerminals = nonTerminals;
+      event.productions = productions;
+      event.states = states;
+      event.commit();
+    }
+  }
+
+  public static void recordFaToGrammar(Span span, int states, int productions) {
+    FA_TO_GRAMMAR_CONVERSIONS.increment();
+    FA_TO_GRAMMAR_NANOS.add(span.end());
+    FaToGrammarConversionEvent event = (FaToGrammarConversionEvent) span.event;
+    if (event.shouldCommit()) {
+      event.states = states;
+      event.productions = productions;
+      event.commit();
+    }
+  }
+
+  /**
+   * Called once per {@code accepts}/{@code stringBelongToLanguage} call by every matcher,
+   * compiled DFA classes included. Matching is too fine-grained for events; it only feeds
+   * counters.
+   */
+  public static void recordMatch(int symbols) {
+    MATCHES.increment();
+    MATCHED_SYMBOLS.add(symbols);
+  }
+
+  public static void recordLexing(Span span, int chars, int tokens) {
+    LEXER_RUNS.increment();
+    LEXED_CHARS.add(chars);
+    LEXED_TOKENS.add(tokens);
+    LEXING_NANOS.add(span.end());
+    LexingEvent event = (LexingEvent) span.event;
+    if (event.shouldCommit()) {
+      event.chars = chars;
+      event.tokens = tokens;
+      event.commit();
+    }
+  }
+
+  public static Counters counters() {
+    return new Counters(
+        NFA_TO_DFA_CONVERSIONS.sum(), SUBSETS_EXPLORED.sum(), NFA_TO_DFA_NANOS.sum(),
+        GRAMMAR_TO_AUTOMATON_CONVERSIONS.sum(), GRAMMAR_TO_AUTOMATON_NANOS.sum(),
+        FA_TO_GRAMMAR_CONVERSIONS.sum(), FA_TO_GRAMMAR_NANOS.sum(),
+        MATCHES.sum(), MATCHED_SYMBOLS.sum(),
+        LEXER_RUNS.sum(), LEXED_CHARS.sum(), LEXED_TOKENS.sum(), LEXING_NANOS.sum());
+  }
+
+  public static void reset() {
+    for (LongAdder adder : new LongAdder[] {
+        NFA_TO_DFA_CONVERSIONS, SUBSETS_EXPLORED, NFA_TO_DFA_NANOS,
+        GRAMMAR_TO_AUTOMATON_CONVERSIONS, GRAMMAR_TO_AUTOMATON_NANOS,
+        FA_TO_GRAMMAR_CONVERSIONS, FA_TO_GRAMMAR_NANOS,
+        MATCHES, MATCHED_SYMBOLS,
+        LEXER_RUNS, LEXED_CHARS, LEXED_TOKENS, LEXING_NANOS}) {
+      adder.reset();
+    }
+  }
+
+  /** Point-in-time view of all counters; durations are in nanoseconds. */
+  public record Counters(
+      long nfaToDfaConversions, long subsetsExplored, long nfaToDfaNanos,
+      long grammarToAutomatonConversions, long grammarToAutomatonNanos,
+      long faToGrammarConversions, long faToGrammarNanos,
+      long matches, long matchedSymbols,
+      long lexerRuns, long lexedChars, long lexedTokens, long lexingNanos) {
+  }
+
+  /**
+   * One timed operation: a begun JFR event plus a {@code nanoTime} start for the counters,
+   * which cannot read the event's duration back.
+   */
+  public static final class Span {
+    private final Event event;
+    private final long start;
+
+    private Span(Event event) {
+      this.event = event;
+      event.begin();
+      this.start = System.nanoTime();
+    }
+
+    /** Ends the event and returns the elapsed nanoseconds. */
+    private long end() {
+      event.end();
+      return System.nanoTime() - start;
+    }
+  }
+
+  private static final class Bean implements InstrumentationMXBean {
+    @Override
+    public Counters getCounters() {
+      return counters();
+    }
+
+    @Override
+    public void resetCounters() {
+      reset();
+    }
+  }
+}
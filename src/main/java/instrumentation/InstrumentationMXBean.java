@@ -0,0 +1,9 @@
+package instrumentation;
+
+/** JMX view of {@link Instrumentation}, registered as {@value Instrumentation#MBEAN_NAME}. */
+public interface InstrumentationMXBean {
+
+  Instrumentation.Counters getCounters();
+
+  void resetCounters();
+}
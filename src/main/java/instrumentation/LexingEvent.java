@@ -0,0 +1,20 @@
+package instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("lfa.Lexing")
+@Label("Lexing")
+@Category("LFA")
+@Description("Lexer.tokenize over one input")
+class LexingEvent extends Event {
+
+  @Label("Characters")
+  int chars;
+
+  @Label("Tokens")
+  int tokens;
+}
@@ -0,0 +1,20 @@
+package instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("lfa.NfaToDfaConversion")
+@Label("NFA to DFA Conversion")
+@Category("LFA")
+@Description("Subset construction in NfaToDfaConverter.convert")
+class NfaToDfaConversionEvent extends Event {
+
+  @Label("NFA States")
+  int nfaStates;
+
+  @Label("DFA States")
+  int dfaStates;
+}
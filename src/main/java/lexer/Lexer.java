@@ -2,6 +2,7 @@ package lexer;
 
 import java.util.ArrayList;
 import java.util.List;
+import instrumentation.Instrumentation;
 
 public class Lexer {
   private final String input;
@@ -13,6 +14,15 @@ public class Lexer {
   }
 
   public List<Token> tokenize() {
+    return tokenize(null);
+  }
+
+  /**
+   * Tokenizes the input; when {@code spans} is non-null it also receives the
+   * [start, end) offsets of every token, in order.
+   */
+  List<Token> tokenize(TokenSpans spans) {
+    Instrumentation.Span span = Instrumentation.startLexing();
     List<Token> tokens = new ArrayList<>();
 
     while (!isAtEnd()) {
@@ -23,22 +33,26 @@ public class Lexer {
         continue;
       }
 
+      int tokenStart = position;
+
       if (Character.isDigit(current)) {
         tokens.add(readNumber());
+        recordSpan(spans, tokenStart);
         continue;
       }
 
       if (Character.isLetter(current) || current == '_') {
         tokens.add(readIdentifierOrKeyword());
+        recordSpan(spans, tokenStart);
         continue;
       }
 
       switch (current) {
         case '=':
+          advance();
           if (match('=')) {
             tokens.add(new Token(TokenType.EQUALS, "=="));
           } else {
-            advance();
             tokens.add(new Token(TokenType.ASSIGN, "="));
           }
           break;
@@ -125,9 +139,14 @@ public class Lexer {
               "Unexpected character: '" + current + "' at position " + position
           );
       }
+      recordSpan(spans, tokenStart);
     }
 
     tokens.add(new Token(TokenType.EOF, ""));
+    recordSpan(spans, position);
+    if (Instrumentation.ENABLED) {
+      Instrumentation.recordLexing(span, input.length(), tokens.size());
+    }
     return tokens;
   }
 
@@ -196,6 +215,12 @@ public class Lexer {
     }
   }
 
+  private void recordSpan(TokenSpans spans, int tokenStart) {
+    if (spans != null) {
+      spans.add(tokenStart, position);
+    }
+  }
+
   private void skipWhitespace() {
     while (!isAtEnd() && Character.isWhitespace(peek())) {
       advance();
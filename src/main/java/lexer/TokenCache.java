@@ -0,0 +1,258 @@
+package lexer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of {@link Lexer#tokenize()} results keyed by the SHA-256 digest and length of the
+ * source text, so a hit can only come from the same source.
+ * Entries are stored compactly: per token one type-ordinal byte plus varint-encoded
+ * gap and length; lexemes are not stored but cut back out of the source on a hit.
+ * Entries live in an in-memory LRU and, optionally, as files in a directory so they
+ * survive restarts. Anything unreadable or inconsistent is treated as a miss and the
+ * source is lexed normally.
+ *
+ * <pre>
+ * TokenCache cache = new TokenCache(1024, Path.of("build/token-cache"));
+ * List&lt;Token&gt; tokens = cache.tokenize(source);
+ * </pre>
+ */
+public class TokenCache {
+
+  private static final int FILE_MAGIC = 0x4C465454; // "LFTT"
+  private static final int FILE_VERSION = 2;
+  private static final TokenType[] TYPES = TokenType.values();
+
+  private final Map<Key, byte[]> memory;
+  private final Path directory;
+
+  private final LongAdder memoryHits = new LongAdder();
+  private final LongAdder diskHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public TokenCache(int maxEntries) {
+    this(maxEntries, null);
+  }
+
+  /**
+   * @param directory where entries are persisted, or null for an in-memory cache only
+   */
+  public TokenCache(int maxEntries, Path directory) {
+    this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, byte[]> eldest) {
+        return size() > maxEntries;
+      }
+    };
+    this.directory = directory;
+  }
+
+  public List<Token> tokenize(String source) {
+    Key key = Key.of(source);
+
+    byte[] encoded;
+    synchronized (memory) {
+      encoded = memory.get(key);
+    }
+    if (encoded != null) {
+      List<Token> tokens = decode(encoded, source);
+      if (tokens != null) {
+        memoryHits.increment();
+        return tokens;
+      }
+    }
+
+    encoded = readFromDisk(key, source.length());
+    if (encoded != null) {
+      List<Token> tokens = decode(encoded, source);
+      if (tokens != null) {
+        diskHits.increment();
+        remember(key, encoded);
+        return tokens;
+      }
+    }
+
+    misses.increment();
+    TokenSpans spans = new TokenSpans();
+    List<Token> tokens = new Lexer(source).tokenize(spans);
+    encoded = encode(tokens, spans);
+    remember(key, encoded);
+    writeToDisk(key, source.length(), encoded);
+    return tokens;
+  }
+
+  public long getMemoryHits() {
+    return memoryHits.sum();
+  }
+
+  public long getDiskHits() {
+    return diskHits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  private void remember(Key key, byte[] encoded) {
+    synchronized (memory) {
+      memory.put(key, encoded);
+    }
+  }
+
+  static byte[] encode(List<Token> tokens, TokenSpans spans) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(tokens.size() * 3 + 8);
+    writeVarint(out, tokens.size());
+    int previousEnd = 0;
+    for (int i = 0; i < tokens.size(); i++) {
+      out.write(tokens.get(i).getType().ordinal());
+      writeVarint(out, spans.start(i) - previousEnd);
+      writeVarint(out, spans.end(i) - spans.start(i));
+      previousEnd = spans.end(i);
+    }
+    return out.toByteArray();
+  }
+
+  /** Rebuilds the tokens, or returns null if the data does not fit the source. */
+  static List<Token> decode(byte[] data, String source) {
+    int[] pos = {0};
+    int count = readVarint(data, pos);
+    // Every token takes at least three bytes, so a larger count is corrupt; checking it
+    // first keeps a bad file from sizing the list near Integer.MAX_VALUE.
+    if (count < 0 || count > data.length / 3) {
+      return null;
+    }
+    List<Token> tokens = new ArrayList<>(count);
+    int previousEnd = 0;
+    for (int i = 0; i < count; i++) {
+      if (pos[0] >= data.length) {
+        return null;
+      }
+      int type = data[pos[0]++] & 0xFF;
+      int gap = readVarint(data, pos);
+      int length = readVarint(data, pos);
+      if (type >= TYPES.length || gap < 0 || length < 0) {
+        return null;
+      }
+      int start = previousEnd + gap;
+      int end = start + length;
+      if (end > source.length() || end < start) {
+        return null;
+      }
+      tokens.add(new Token(TYPES[type], source.substring(start, end)));
+      previousEnd = end;
+    }
+    return pos[0] == data.length ? tokens : null;
+  }
+
+  private static void writeVarint(ByteArrayOutputStream out, int value) {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  /** Returns -1 on truncated or oversized input. */
+  private static int readVarint(byte[] data, int[] pos) {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      if (pos[0] >= data.length) {
+        return -1;
+      }
+      int b = data[pos[0]++];
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    return -1;
+  }
+
+  private byte[] readFromDisk(Key key, int sourceLength) {
+    if (directory == null) {
+      return null;
+    }
+    Path file = directory.resolve(key.fileName());
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+      if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION
+          || in.readInt() != TYPES.length || in.readInt() != sourceLength
+          || in.readLong() != key.h0 || in.readLong() != key.h1
+          || in.readLong() != key.h2 || in.readLong() != key.h3) {
+        return null;
+      }
+      return in.readAllBytes();
+    } catch (IOException e) {
+      return null; // the cache is only an optimisation; lex instead
+    }
+  }
+
+  private void writeToDisk(Key key, int sourceLength, byte[] encoded) {
+    if (directory == null) {
+      return;
+    }
+    try {
+      Files.createDirectories(directory);
+      Path tmp = Files.createTempFile(directory, key.fileName(), ".tmp");
+      try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(FILE_VERSION);
+        out.writeInt(TYPES.length);
+        out.writeInt(sourceLength);
+        out.writeLong(key.h0);
+        out.writeLong(key.h1);
+        out.writeLong(key.h2);
+        out.writeLong(key.h3);
+        out.write(encoded);
+      }
+      Files.move(tmp, directory.resolve(key.fileName()),
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // Not persisted; the in-memory entry still serves later lookups.
+    }
+  }
+
+  /** SHA-256 of the source's UTF-16 code units, plus its length. */
+  private record Key(long h0, long h1, long h2, long h3, int length) {
+
+    static Key of(String s) {
+      MessageDigest sha;
+      try {
+        sha = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException("SHA-256 is required on every Java platform", e);
+      }
+      byte[] chunk = new byte[8192];
+      for (int i = 0; i < s.length(); ) {
+        int n = 0;
+        for (; n < chunk.length && i < s.length(); i++) {
+          char c = s.charAt(i);
+          chunk[n++] = (byte) (c >>> 8);
+          chunk[n++] = (byte) c;
+        }
+        sha.update(chunk, 0, n);
+      }
+      ByteBuffer digest = ByteBuffer.wrap(sha.digest());
+      return new Key(digest.getLong(), digest.getLong(), digest.getLong(), digest.getLong(), s.length());
+    }
+
+    String fileName() {
+      return String.format("%016x%016x%016x%016x.tok", h0, h1, h2, h3);
+    }
+  }
+}
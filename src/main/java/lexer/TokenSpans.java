@@ -0,0 +1,30 @@
+package lexer;
+
+import java.util.Arrays;
+
+/** Growable list of token [start, end) offsets, filled by {@link Lexer#tokenize(TokenSpans)}. */
+final class TokenSpans {
+  private int[] offsets = new int[64];
+  private int count;
+
+  void add(int start, int end) {
+    if (2 * count + 2 > offsets.length) {
+      offsets = Arrays.copyOf(offsets, offsets.length * 2);
+    }
+    offsets[2 * count] = start;
+    offsets[2 * count + 1] = end;
+    count++;
+  }
+
+  int size() {
+    return count;
+  }
+
+  int start(int i) {
+    return offsets[2 * i];
+  }
+
+  int end(int i) {
+    return offsets[2 * i + 1];
+  }
+}
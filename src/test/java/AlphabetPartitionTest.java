@@ -0,0 +1,83 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class AlphabetPartitionTest {
+
+  @Test
+  void classesAreExactlyTheCharsWithTheSameLabels() {
+    Random rnd = new Random(35);
+    for (int round = 0; round < 40; round++) {
+      List<List<CharRange>> labels = new ArrayList<>();
+      for (int l = 1 + rnd.nextInt(6); l > 0; l--) {
+        labels.add(randomLabel(rnd));
+      }
+      AlphabetPartition partition = AlphabetPartition.of(labels);
+
+      Map<BitSet, Integer> classOfMembership = new HashMap<>();
+      Map<Integer, BitSet> membershipOfClass = new HashMap<>();
+      List<BitSet> classesIn = new ArrayList<>();
+      for (int l = 0; l < labels.size(); l++) {
+        classesIn.add(new BitSet());
+      }
+      for (int c = 0; c <= Character.MAX_VALUE; c++) {
+        BitSet membership = new BitSet();
+        for (int l = 0; l < labels.size(); l++) {
+          if (contains(labels.get(l), (char) c)) {
+            membership.set(l);
+          }
+        }
+        int cls = partition.classOf((char) c);
+        assertEquals(membership.isEmpty(), cls == 0, "char " + c);
+        assertEquals(cls, classOfMembership.computeIfAbsent(membership, k -> cls), "char " + c);
+        assertEquals(membership, membershipOfClass.computeIfAbsent(cls, k -> membership), "char " + c);
+        for (int l = membership.nextSetBit(0); l >= 0; l = membership.nextSetBit(l + 1)) {
+          classesIn.get(l).set(cls);
+        }
+      }
+      assertEquals(classOfMembership.size(), partition.classCount());
+      for (int l = 0; l < labels.size(); l++) {
+        assertEquals(classesIn.get(l), partition.classesIn(labels.get(l)), "label " + l);
+      }
+    }
+  }
+
+  @Test
+  void rangeAutomatonMatchesPerCharTransitions() {
+    Random rnd = new Random(36);
+    for (int round = 0; round < 300; round++) {
+      FiniteAutomaton fa = TestAutomata.randomDfa(rnd, 1 + rnd.nextInt(10), "abcxyz");
+      RangeAutomaton ranges = RangeAutomaton.from(fa);
+      for (int w = 0; w < 50; w++) {
+        String word = TestAutomata.randomWord(rnd, "abcxyz", 10);
+        assertEquals(fa.stringBelongToLanguage(word), ranges.accepts(word), word);
+      }
+    }
+  }
+
+  /** A few ranges, mostly near the ASCII letters, sometimes up to the top of the char range. */
+  private static List<CharRange> randomLabel(Random rnd) {
+    List<CharRange> ranges = new ArrayList<>();
+    for (int r = 1 + rnd.nextInt(3); r > 0; r--) {
+      int first = rnd.nextInt(4) == 0 ? rnd.nextInt(Character.MAX_VALUE + 1) : 'a' + rnd.nextInt(26);
+      int last = Math.min(Character.MAX_VALUE, first + (rnd.nextBoolean() ? rnd.nextInt(5) : rnd.nextInt(40_000)));
+      ranges.add(CharRange.of((char) first, (char) last));
+    }
+    return ranges;
+  }
+
+  private static boolean contains(List<CharRange> label, char c) {
+    for (CharRange r : label) {
+      if (r.contains(c)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
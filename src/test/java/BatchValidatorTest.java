@@ -0,0 +1,119 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchValidatorTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void printsEveryLineInFileAndLineOrder() throws Exception {
+    List<Path> files = new ArrayList<>();
+    List<String> expected = new ArrayList<>();
+    for (int f = 0; f < 12; f++) {
+      Path file = dir.resolve("f" + f + ".txt");
+      StringBuilder content = new StringBuilder();
+      for (int line = 1; line <= 37 * f + 5; line++) {
+        String text = (line % 3 == 0 ? "b" : "a") + line;
+        content.append(text).append('\n');
+        expected.add(file + ":" + line + "\t" + (text.startsWith("a") ? "ACCEPT" : "REJECT"));
+      }
+      Files.writeString(file, content);
+      files.add(file);
+    }
+    // Random delays make batches finish out of order, and the tiny queues force readers to block.
+    Automaton slow = input -> {
+      LockSupport.parkNanos(ThreadLocalRandom.current().nextInt(20_000));
+      return input.startsWith("a");
+    };
+    StringWriter text = new StringWriter();
+
+    BatchValidator.Summary summary = assertTimeoutPreemptively(TIMEOUT, () ->
+        new BatchValidator(slow, false, 4, 7, 2, 3).run(files, new PrintWriter(text)));
+
+    List<String> printed = new ArrayList<>(text.toString().lines().toList());
+    assertTrue(printed.removeLast().startsWith("# 12 files (0 failed)"));
+    assertEquals(expected, printed);
+    assertEquals(expected.size(), summary.lines());
+    assertEquals(expected.stream().filter(l -> l.endsWith("REJECT")).count(), summary.rejected());
+  }
+
+  @Test
+  void matcherErrorFailsTheFileWithoutHanging() throws Exception {
+    Path good = dir.resolve("good.txt");
+    Path bad = dir.resolve("bad.txt");
+    Files.writeString(good, "a\n".repeat(40));
+    Files.writeString(bad, "a\n".repeat(20) + "boom\n" + "a\n".repeat(20));
+    Automaton failing = input -> {
+      if (input.equals("boom")) {
+        throw new StackOverflowError();
+      }
+      return true;
+    };
+    StringWriter text = new StringWriter();
+
+    BatchValidator.Summary summary = assertTimeoutPreemptively(TIMEOUT, () ->
+        new BatchValidator(failing, true, 1, 8, 4, 2).run(List.of(bad, good), new PrintWriter(text)));
+
+    assertTrue(text.toString().contains(bad + ": error: java.lang.StackOverflowError"), text.toString());
+    assertEquals(1, summary.failedFiles());
+    assertEquals(40, summary.lines());
+    assertEquals(Files.size(good), summary.bytes());
+  }
+
+  @Test
+  void unreadableFileIsReportedAndCounted() throws Exception {
+    Path good = dir.resolve("good.txt");
+    Path missing = dir.resolve("missing.txt");
+    Files.writeString(good, "a\nb\n");
+    StringWriter text = new StringWriter();
+
+    BatchValidator.Summary summary = assertTimeoutPreemptively(TIMEOUT, () ->
+        new BatchValidator(input -> true, false, 2, 8, 4, 2).run(List.of(missing, good), new PrintWriter(text)));
+
+    assertTrue(text.toString().contains(missing + ": error: "), text.toString());
+    assertEquals(1, summary.failedFiles());
+    assertEquals(2, summary.lines());
+  }
+
+  @Test
+  void failedOutputIsAnError() throws Exception {
+    Path file = dir.resolve("f.txt");
+    Files.writeString(file, "a\n".repeat(100));
+    Writer broken = new Writer() {
+      @Override
+      public void write(char[] buffer, int offset, int length) throws IOException {
+        throw new IOException("Broken pipe");
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+
+    assertThrows(IOException.class, () -> assertTimeoutPreemptively(TIMEOUT, () ->
+        new BatchValidator(input -> true, false, 2, 8, 4, 2).run(List.of(file), new PrintWriter(broken))));
+  }
+}
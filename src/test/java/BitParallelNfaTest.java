@@ -0,0 +1,44 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class BitParallelNfaTest {
+
+  private static final String ALPHABET = "abc";
+
+  @Test
+  void singleWordMatcherAgreesWithNdfa() {
+    Random rnd = new Random(41);
+    for (int round = 0; round < 300; round++) {
+      Ndfa ndfa = TestAutomata.randomNdfa(rnd, 1 + rnd.nextInt(64), ALPHABET, rnd.nextBoolean());
+      BitParallelNfa matcher = BitParallelNfa.of(ndfa);
+      assertInstanceOf(BitParallelNfa.Word.class, matcher);
+      assertAgrees(ndfa, matcher, rnd);
+    }
+  }
+
+  @Test
+  void multiWordMatcherAgreesWithNdfa() {
+    Random rnd = new Random(42);
+    for (int round = 0; round < 60; round++) {
+      Ndfa ndfa = TestAutomata.randomNdfa(rnd, 65 + rnd.nextInt(140), ALPHABET, rnd.nextBoolean());
+      BitParallelNfa matcher = BitParallelNfa.of(ndfa);
+      assertInstanceOf(BitParallelNfa.Words.class, matcher);
+      assertEquals(ndfa.getStates().size(), matcher.stateCount());
+      assertAgrees(ndfa, matcher, rnd);
+    }
+  }
+
+  /** Checks both entry points, reusing one buffer across inputs as a batch caller would. */
+  private static void assertAgrees(Ndfa ndfa, BitParallelNfa matcher, Random rnd) {
+    long[] buffer = matcher.newBuffer();
+    for (int w = 0; w < 60; w++) {
+      String word = TestAutomata.randomWord(rnd, ALPHABET, 12);
+      boolean expected = TestAutomata.ndfaAccepts(ndfa, word);
+      assertEquals(expected, matcher.accepts(word), word);
+      assertEquals(expected, matcher.accepts(word, buffer), word);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Random;
+import java.util.function.BiPredicate;
+import org.junit.jupiter.api.Test;
+
+class BooleanAutomatonTest {
+
+  private static final String ALPHABET = "ab";
+
+  @Test
+  void lazyProductsMatchExplicitProducts() {
+    Random rnd = new Random(33);
+    for (int round = 0; round < 300; round++) {
+      FiniteAutomaton a = TestAutomata.randomDfa(rnd, 1 + rnd.nextInt(6), ALPHABET);
+      FiniteAutomaton b = TestAutomata.randomDfa(rnd, 1 + rnd.nextInt(6), ALPHABET);
+      BooleanAutomaton la = BooleanAutomaton.of(a);
+      BooleanAutomaton lb = BooleanAutomaton.of(b);
+
+      check(la.and(lb), a, b, (x, y) -> x && y, rnd);
+      check(la.or(lb), a, b, (x, y) -> x || y, rnd);
+      check(la.minus(lb), a, b, (x, y) -> x && !y, rnd);
+    }
+  }
+
+  private static void check(BooleanAutomaton lazy, FiniteAutomaton a, FiniteAutomaton b,
+                            BiPredicate<Boolean, Boolean> op, Random rnd) {
+    for (int w = 0; w < 50; w++) {
+      String word = TestAutomata.randomWord(rnd, ALPHABET, 8);
+      assertEquals(op.test(a.stringBelongToLanguage(word), b.stringBelongToLanguage(word)),
+          lazy.accepts(word), word);
+    }
+    int shortest = shortestInProduct(DfaTable.from(a), DfaTable.from(b), op);
+    Optional<String> word = lazy.shortestWord();
+    assertEquals(shortest < 0, lazy.isEmpty());
+    assertEquals(shortest < 0, word.isEmpty());
+    if (word.isPresent()) {
+      assertEquals(shortest, word.get().length());
+      assertTrue(lazy.accepts(word.get()), word.get());
+    }
+  }
+
+  /**
+   * Length of the shortest word the explicit product DFA accepts, or -1. Product states are
+   * pairs of operand states, -1 standing for the dead state of a missing transition.
+   */
+  private static int shortestInProduct(DfaTable a, DfaTable b, BiPredicate<Boolean, Boolean> op) {
+    Map<List<Integer>, Integer> distance = new HashMap<>();
+    Queue<List<Integer>> queue = new ArrayDeque<>();
+    List<Integer> start = List.of(0, 0);
+    distance.put(start, 0);
+    queue.add(start);
+    while (!queue.isEmpty()) {
+      List<Integer> pair = queue.poll();
+      int p = pair.get(0);
+      int q = pair.get(1);
+      if (op.test(p >= 0 && a.isAccepting(p), q >= 0 && b.isAccepting(q))) {
+        return distance.get(pair);
+      }
+      for (char c : ALPHABET.toCharArray()) {
+        List<Integer> next = List.of(step(a, p, c), step(b, q, c));
+        if (distance.putIfAbsent(next, distance.get(pair) + 1) == null) {
+          queue.add(next);
+        }
+      }
+    }
+    return -1;
+  }
+
+  private static int step(DfaTable table, int state, char c) {
+    int s = table.symbolIndex(c);
+    return state < 0 || s < 0 ? -1 : table.next(state, s);
+  }
+}
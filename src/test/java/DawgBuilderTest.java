@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class DawgBuilderTest {
+
+  private static final String ALPHABET = "abc";
+
+  @Test
+  void hasAsManyStatesAsTheMinimisedTrie() {
+    Random rnd = new Random(36);
+    for (int round = 0; round < 300; round++) {
+      TreeSet<String> words = new TreeSet<>();
+      for (int w = rnd.nextInt(40); w > 0; w--) {
+        words.add(TestAutomata.randomWord(rnd, ALPHABET, 6).replace("#", ""));
+      }
+      DawgBuilder builder = new DawgBuilder();
+      words.forEach(builder::add);
+      Dawg dawg = builder.build();
+
+      DfaTable trie = DfaTable.from(trie(words));
+      int[] blocks = TestAutomata.mooreBlocks(List.of(trie), ALPHABET);
+      Set<Integer> live = new HashSet<>();
+      for (int q = 0; q < trie.stateCount(); q++) {
+        if (blocks[q] != blocks[trie.stateCount()] || q == 0) {
+          live.add(blocks[q]);
+        }
+      }
+      assertEquals(live.size(), dawg.stateCount(), words.toString());
+
+      for (int w = 0; w < 50; w++) {
+        String word = TestAutomata.randomWord(rnd, ALPHABET, 7);
+        assertEquals(words.contains(word), dawg.accepts(word), word);
+      }
+    }
+  }
+
+  /** Prefix tree of the words: one state per distinct prefix. */
+  private static FiniteAutomaton trie(Set<String> words) {
+    Set<String> states = new HashSet<>(Set.of("^"));
+    Map<String, Map<Character, String>> delta = new HashMap<>();
+    for (String word : words) {
+      for (int i = 0; i < word.length(); i++) {
+        states.add("^" + word.substring(0, i + 1));
+        delta.computeIfAbsent("^" + word.substring(0, i), k -> new HashMap<>())
+            .put(word.charAt(i), "^" + word.substring(0, i + 1));
+      }
+    }
+    Set<String> finals = new HashSet<>();
+    words.forEach(w -> finals.add("^" + w));
+    Set<Character> alphabet = new HashSet<>();
+    for (char c : ALPHABET.toCharArray()) {
+      alphabet.add(c);
+    }
+    return new FiniteAutomaton(states, alphabet, delta, "^", finals);
+  }
+}
@@ -0,0 +1,163 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.CRC32C;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DfaBinaryFormatTest {
+
+  private static final String ALPHABET = "abcz";
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void mappedDfaMatchesLikeTheSourceAutomaton() throws IOException {
+    Random rnd = new Random(27);
+    for (int round = 0; round < 200; round++) {
+      FiniteAutomaton fa = TestAutomata.randomDfa(rnd, 1 + rnd.nextInt(40), ALPHABET);
+      DfaTable table = DfaTable.from(fa);
+      Path file = dir.resolve("dfa" + round + ".bin");
+      DfaBinaryFormat.write(fa, file);
+      MappedDfa mapped = DfaBinaryFormat.map(file);
+
+      assertEquals(table.stateCount(), mapped.stateCount());
+      for (int w = 0; w < 200; w++) {
+        String word = TestAutomata.randomWord(rnd, ALPHABET, 12);
+        boolean expected = fa.stringBelongToLanguage(word);
+        assertEquals(expected, table.accepts(word), word);
+        assertEquals(expected, mapped.accepts(word), word);
+        assertEquals(expected, mapped.toDfaTable().accepts(word), word);
+      }
+    }
+  }
+
+  @Test
+  void lab1GrammarRoundTrips() throws IOException {
+    FiniteAutomaton fa = new Grammar().toFiniteAutomaton();
+    Path file = dir.resolve("lab1.bin");
+    DfaBinaryFormat.write(fa, file);
+    MappedDfa mapped = DfaBinaryFormat.map(file);
+    for (String word : new String[] {"", "ab", "abb", "aab", "bbb", "acbb", "abab"}) {
+      assertEquals(fa.stringBelongToLanguage(word), mapped.accepts(word), word);
+    }
+  }
+
+  @Test
+  void rejectsTruncatedFiles() throws IOException {
+    Path file = written();
+    long size = Files.size(file);
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.setLength(size - 4);
+    }
+    assertThrows(IOException.class, () -> DfaBinaryFormat.map(file));
+
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.setLength(DfaBinaryFormat.HEADER_SIZE - 1);
+    }
+    assertThrows(IOException.class, () -> DfaBinaryFormat.map(file));
+  }
+
+  @Test
+  void rejectsBadMagic() throws IOException {
+    Path file = written();
+    patchInt(file, 0, 0x12345678);
+    IOException e = assertThrows(IOException.class, () -> DfaBinaryFormat.map(file));
+    assertTrue(e.getMessage().contains("magic"), e.getMessage());
+  }
+
+  @Test
+  void rejectsUnknownVersion() throws IOException {
+    Path file = written();
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.seek(DfaBinaryFormat.OFFSET_VERSION);
+      raf.writeShort(DfaBinaryFormat.VERSION + 1);
+    }
+    IOException e = assertThrows(IOException.class, () -> DfaBinaryFormat.map(file));
+    assertTrue(e.getMessage().contains("version"), e.getMessage());
+  }
+
+  @Test
+  void rejectsCorruptedBody() throws IOException {
+    Path file = written();
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      long last = raf.length() - 1;
+      raf.seek(last);
+      int b = raf.read();
+      raf.seek(last);
+      raf.write(b ^ 0x01);
+    }
+    IOException e = assertThrows(IOException.class, () -> DfaBinaryFormat.map(file));
+    assertTrue(e.getMessage().contains("checksum"), e.getMessage());
+  }
+
+  @Test
+  void rejectsChangedHeaderFields() throws IOException {
+    for (int offset = 0; offset < DfaBinaryFormat.OFFSET_CHECKSUM; offset++) {
+      Path file = written();
+      try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+        raf.seek(offset);
+        int b = raf.read();
+        raf.seek(offset);
+        raf.write(b ^ 0x01);
+      }
+      int flipped = offset;
+      assertThrows(IOException.class, () -> DfaBinaryFormat.map(file), () -> "byte " + flipped);
+    }
+  }
+
+  @Test
+  void rejectsChangedStartState() throws IOException {
+    Path file = dir.resolve("two.bin");
+    FiniteAutomaton twoStates = new FiniteAutomaton(Set.of("q0", "q1"), Set.of('a'),
+        Map.of("q0", Map.of('a', "q1")), "q0", Set.of("q0"));
+    DfaBinaryFormat.write(twoStates, file);
+    assertTrue(DfaBinaryFormat.map(file).accepts(""));
+
+    patchInt(file, DfaBinaryFormat.OFFSET_START, 1);
+    IOException e = assertThrows(IOException.class, () -> DfaBinaryFormat.map(file));
+    assertTrue(e.getMessage().contains("checksum"), e.getMessage());
+  }
+
+  @Test
+  void rejectsOutOfRangeTargetsEvenWithAValidChecksum() throws IOException {
+    Path file = written();
+    int n = DfaBinaryFormat.map(file).stateCount();
+    int tableOffset = DfaBinaryFormat.HEADER_SIZE + 2 * ALPHABET.length(); // already 4-aligned
+    patchInt(file, tableOffset, n);
+    resign(file);
+    IOException e = assertThrows(IOException.class, () -> DfaBinaryFormat.map(file));
+    assertTrue(e.getMessage().contains("out of range"), e.getMessage());
+  }
+
+  /** Recomputes the checksum the way the writer does, to get past it to the later checks. */
+  private static void resign(Path file) throws IOException {
+    byte[] bytes = Files.readAllBytes(file);
+    CRC32C crc = new CRC32C();
+    crc.update(bytes, 0, DfaBinaryFormat.OFFSET_CHECKSUM);
+    crc.update(bytes, DfaBinaryFormat.HEADER_SIZE, bytes.length - DfaBinaryFormat.HEADER_SIZE);
+    patchInt(file, DfaBinaryFormat.OFFSET_CHECKSUM, (int) crc.getValue());
+  }
+
+  private Path written() throws IOException {
+    Path file = dir.resolve("dfa.bin");
+    DfaBinaryFormat.write(TestAutomata.randomDfa(new Random(1), 12, ALPHABET), file);
+    return file;
+  }
+
+  private static void patchInt(Path file, long offset, int value) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.seek(offset);
+      raf.writeInt(value);
+    }
+  }
+}
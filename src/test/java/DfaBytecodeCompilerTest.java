@@ -0,0 +1,164 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.CodeModel;
+import java.lang.classfile.MethodModel;
+import java.lang.classfile.attribute.CodeAttribute;
+import java.lang.classfile.instruction.LookupSwitchInstruction;
+import java.lang.classfile.instruction.TableSwitchInstruction;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class DfaBytecodeCompilerTest {
+
+  private static final String DENSE = "abcdef";
+  private static final String SPARSE = "aqz";
+  private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+  private final DfaBytecodeCompiler compiler = new DfaBytecodeCompiler();
+
+  @Test
+  void denseAlphabetUsesTableswitch() {
+    Random rnd = new Random(28);
+    for (int round = 0; round < 200; round++) {
+      FiniteAutomaton fa = TestAutomata.randomDfa(rnd, 1 + rnd.nextInt(30), DENSE);
+      assertCompiledMatchesTable(fa, rnd, DENSE);
+    }
+    byte[] bytes = compiler.generate(DfaTable.from(complete(20, DENSE)));
+    assertTrue(contains(bytes, TableSwitchInstruction.class));
+    assertFalse(contains(bytes, LookupSwitchInstruction.class));
+  }
+
+  @Test
+  void sparseAlphabetUsesLookupswitch() {
+    Random rnd = new Random(29);
+    for (int round = 0; round < 200; round++) {
+      FiniteAutomaton fa = TestAutomata.randomDfa(rnd, 1 + rnd.nextInt(30), SPARSE);
+      assertCompiledMatchesTable(fa, rnd, SPARSE);
+    }
+    byte[] bytes = compiler.generate(DfaTable.from(complete(20, SPARSE)));
+    assertTrue(contains(bytes, LookupSwitchInstruction.class));
+    assertFalse(contains(bytes, TableSwitchInstruction.class));
+  }
+
+  @Test
+  void fallsBackToTableAboveMaxStates() {
+    FiniteAutomaton fa = complete(10, DENSE);
+    Automaton small = new DfaBytecodeCompiler(9).compile(fa);
+    assertInstanceOf(DfaTable.class, small);
+    Automaton exact = new DfaBytecodeCompiler(10).compile(fa);
+    assertFalse(exact instanceof DfaTable);
+
+    Random rnd = new Random(30);
+    for (int w = 0; w < 500; w++) {
+      String word = TestAutomata.randomWord(rnd, DENSE, 20);
+      assertEquals(fa.stringBelongToLanguage(word), small.accepts(word), word);
+      assertEquals(fa.stringBelongToLanguage(word), exact.accepts(word), word);
+    }
+  }
+
+  @Test
+  void oversizeMethodThrowsIllegalArgumentException() {
+    DfaTable table = DfaTable.from(complete(DfaBytecodeCompiler.DEFAULT_MAX_STATES, LETTERS));
+    assertEquals(DfaBytecodeCompiler.DEFAULT_MAX_STATES, table.stateCount());
+    assertThrows(IllegalArgumentException.class, () -> compiler.generate(table));
+  }
+
+  @Test
+  void maxCodeLengthBoundsTheGeneratedMethod() {
+    Random rnd = new Random(33);
+    for (int round = 0; round < 200; round++) {
+      String alphabet = round % 2 == 0 ? DENSE : SPARSE + "09";
+      DfaTable table = DfaTable.from(TestAutomata.randomDfa(rnd, 1 + rnd.nextInt(60), alphabet));
+      int actual = codeLength(compiler.generate(table));
+      int bound = DfaBytecodeCompiler.maxCodeLength(table);
+      assertTrue(actual <= bound, actual + " > " + bound);
+      assertTrue(bound - actual <= 5 + 3 * table.stateCount(), "loose bound " + bound + " for " + actual);
+    }
+    DfaTable large = DfaTable.from(complete(DfaBytecodeCompiler.DEFAULT_MAX_STATES, LETTERS));
+    assertTrue(DfaBytecodeCompiler.maxCodeLength(large) > DfaBytecodeCompiler.MAX_CODE_LENGTH);
+  }
+
+  @Test
+  void fallsBackToTableWhenCodeIsTooLarge() {
+    FiniteAutomaton fa = complete(DfaBytecodeCompiler.DEFAULT_MAX_STATES, LETTERS);
+    Automaton matcher = compiler.compile(fa);
+    assertInstanceOf(DfaTable.class, matcher);
+
+    Random rnd = new Random(31);
+    for (int w = 0; w < 500; w++) {
+      String word = TestAutomata.randomWord(rnd, LETTERS, 40);
+      assertEquals(fa.stringBelongToLanguage(word), matcher.accepts(word), word);
+    }
+  }
+
+  @Test
+  void wideAlphabetCompilesBelowCodeLimit() {
+    FiniteAutomaton fa = complete(300, LETTERS);
+    Automaton matcher = compiler.compile(fa);
+    assertFalse(matcher instanceof DfaTable);
+
+    Random rnd = new Random(32);
+    for (int w = 0; w < 500; w++) {
+      String word = TestAutomata.randomWord(rnd, LETTERS, 40);
+      assertEquals(fa.stringBelongToLanguage(word), matcher.accepts(word), word);
+    }
+  }
+
+  private void assertCompiledMatchesTable(FiniteAutomaton fa, Random rnd, String alphabet) {
+    DfaTable table = DfaTable.from(fa);
+    Automaton compiled = compiler.compile(fa);
+    assertFalse(compiled instanceof DfaTable);
+    for (int w = 0; w < 100; w++) {
+      String word = TestAutomata.randomWord(rnd, alphabet, 15);
+      assertEquals(table.accepts(word), compiled.accepts(word), word);
+    }
+  }
+
+  /** Complete DFA with every state reachable: state i goes to i + j + 1 on the j-th symbol. */
+  private static FiniteAutomaton complete(int states, String alphabet) {
+    Set<String> names = new HashSet<>();
+    Set<String> finals = new HashSet<>();
+    Set<Character> symbols = new HashSet<>();
+    Map<String, Map<Character, String>> delta = new HashMap<>();
+    for (int i = 0; i < states; i++) {
+      names.add("q" + i);
+      if (i % 3 == 0) {
+        finals.add("q" + i);
+      }
+      for (int j = 0; j < alphabet.length(); j++) {
+        symbols.add(alphabet.charAt(j));
+        delta.computeIfAbsent("q" + i, k -> new HashMap<>())
+            .put(alphabet.charAt(j), "q" + (i + j + 1) % states);
+      }
+    }
+    return new FiniteAutomaton(names, symbols, delta, "q0", finals);
+  }
+
+  private static int codeLength(byte[] classFile) {
+    for (MethodModel method : ClassFile.of().parse(classFile).methods()) {
+      if (method.methodName().equalsString("accepts")) {
+        return ((CodeAttribute) method.code().orElseThrow()).codeLength();
+      }
+    }
+    throw new AssertionError("no accepts method");
+  }
+
+  private static boolean contains(byte[] classFile, Class<?> instruction) {
+    for (MethodModel method : ClassFile.of().parse(classFile).methods()) {
+      if (method.methodName().equalsString("accepts")) {
+        CodeModel code = method.code().orElseThrow();
+        return code.elementStream().anyMatch(instruction::isInstance);
+      }
+    }
+    return false;
+  }
+}
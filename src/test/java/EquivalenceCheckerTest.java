@@ -0,0 +1,94 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class EquivalenceCheckerTest {
+
+  private static final String ALPHABET = "ab";
+
+  private final EquivalenceChecker checker = new EquivalenceChecker();
+
+  @Test
+  void agreesWithMinimisationOnRandomPairs() {
+    Random rnd = new Random(34);
+    int equivalent = 0;
+    for (int round = 0; round < 1000; round++) {
+      FiniteAutomaton a = TestAutomata.randomDfa(rnd, 1 + rnd.nextInt(4), ALPHABET);
+      FiniteAutomaton b = TestAutomata.randomDfa(rnd, 1 + rnd.nextInt(4), ALPHABET);
+      boolean expected = sameMinimalDfa(a, b);
+      equivalent += expected ? 1 : 0;
+      assertEquals(expected, checker.areEquivalent(a, b));
+      checkWitness(a, b, checker.distinguishingWord(a, b), expected);
+    }
+    assertTrue(equivalent > 20, "only " + equivalent + " equivalent pairs");
+  }
+
+  @Test
+  void redundantCopiesAreEquivalent() {
+    Random rnd = new Random(35);
+    for (int round = 0; round < 300; round++) {
+      FiniteAutomaton a = TestAutomata.randomDfa(rnd, 1 + rnd.nextInt(10), ALPHABET);
+      FiniteAutomaton b = duplicateStates(a, rnd);
+      assertTrue(sameMinimalDfa(a, b));
+      assertTrue(checker.areEquivalent(a, b));
+      assertEquals(Optional.empty(), checker.distinguishingWord(b, a));
+    }
+  }
+
+  @Test
+  void ndfaIsEquivalentToItsSubsetConstruction() {
+    Random rnd = new Random(36);
+    NfaToDfaConverter converter = new NfaToDfaConverter();
+    for (int round = 0; round < 200; round++) {
+      Ndfa ndfa = TestAutomata.randomNdfa(rnd, 1 + rnd.nextInt(8), ALPHABET, rnd.nextBoolean());
+      FiniteAutomaton dfa = converter.convert(ndfa);
+      assertTrue(checker.areEquivalent(ndfa, dfa));
+
+      FiniteAutomaton other = TestAutomata.randomDfa(rnd, 1 + rnd.nextInt(4), ALPHABET);
+      boolean expected = sameMinimalDfa(dfa, other);
+      assertEquals(expected, checker.areEquivalent(ndfa, other));
+      checkWitness(dfa, other, checker.distinguishingWord(ndfa, other), expected);
+    }
+  }
+
+  private static boolean sameMinimalDfa(FiniteAutomaton a, FiniteAutomaton b) {
+    DfaTable ta = DfaTable.from(a);
+    int[] blocks = TestAutomata.mooreBlocks(List.of(ta, DfaTable.from(b)), ALPHABET);
+    return blocks[0] == blocks[ta.stateCount()];
+  }
+
+  private static void checkWitness(FiniteAutomaton a, FiniteAutomaton b, Optional<String> word,
+                                   boolean equivalent) {
+    assertEquals(equivalent, word.isEmpty());
+    word.ifPresent(w -> assertNotEquals(a.stringBelongToLanguage(w), b.stringBelongToLanguage(w), w));
+  }
+
+  /** Same language: every state gets a twin, and each transition picks the original or the twin. */
+  private static FiniteAutomaton duplicateStates(FiniteAutomaton fa, Random rnd) {
+    Set<String> states = new HashSet<>();
+    Set<String> finals = new HashSet<>();
+    Map<String, Map<Character, String>> delta = new HashMap<>();
+    for (String state : fa.getStates()) {
+      for (String copy : List.of(state, state + "'")) {
+        states.add(copy);
+        if (fa.getFinalStates().contains(state)) {
+          finals.add(copy);
+        }
+        Map<Character, String> row = new HashMap<>();
+        fa.getDelta().getOrDefault(state, Map.of())
+            .forEach((c, t) -> row.put(c, rnd.nextBoolean() ? t : t + "'"));
+        delta.put(copy, row);
+      }
+    }
+    return new FiniteAutomaton(states, fa.getAlphabet(), delta, fa.getStartState() + "'", finals);
+  }
+}
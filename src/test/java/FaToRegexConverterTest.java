@@ -0,0 +1,49 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class FaToRegexConverterTest {
+
+  private final FaToRegexConverter converter = new FaToRegexConverter();
+
+  @Test
+  void convertedExpressionsCompileBackToTheSameLanguage() {
+    Random rnd = new Random(39);
+    for (int round = 0; round < 300; round++) {
+      String alphabet = round % 2 == 0 ? "ab" : "abc";
+      FiniteAutomaton fa = TestAutomata.randomDfa(rnd, 1 + rnd.nextInt(7), alphabet);
+      FaToRegexConverter.Regex regex = converter.convert(fa);
+      assertTrue(converter.verify(fa, regex), regex.pattern());
+
+      Pattern java = Pattern.compile(regex.pattern().equals("[]") ? "(?!)" : regex.pattern());
+      for (int w = 0; w < 50; w++) {
+        String word = TestAutomata.randomWord(rnd, alphabet, 10);
+        assertEquals(fa.stringBelongToLanguage(word), java.matcher(word).matches(),
+            regex.pattern() + " on " + word);
+      }
+    }
+  }
+
+  @Test
+  void emptyLanguageIsTheEmptyClass() {
+    FiniteAutomaton fa = new FiniteAutomaton(Set.of("s", "t"), Set.of('a'),
+        Map.of("s", Map.of('a', "t")), "s", Set.of());
+    FaToRegexConverter.Regex regex = converter.convert(fa);
+    assertEquals("[]", regex.pattern());
+    assertTrue(converter.verify(fa, regex));
+  }
+
+  @Test
+  void sizeIsTheAlphabeticWidth() {
+    FiniteAutomaton fa = new FiniteAutomaton(Set.of("s", "t"), Set.of('a', 'b'),
+        Map.of("s", Map.of('a', "t"), "t", Map.of('b', "s")), "s", Set.of("t"));
+    FaToRegexConverter.Regex regex = converter.convert(fa);
+    assertEquals(new RegexCompiler().compile(regex.pattern()).getStates().size() - 1, regex.size());
+    assertTrue(converter.verify(fa, regex), regex.pattern());
+  }
+}
@@ -0,0 +1,95 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lexer.Lexer;
+import org.junit.jupiter.api.Test;
+
+class Ll1ParserTest {
+
+  private static final Set<String> STATEMENT_START = Set.of("l", "i", "r", "f", "{");
+  private static final Set<String> OPERAND_START = Set.of("n", "d", "i", "(", "-", "s", "c");
+  private static final Set<String> COMPARISONS = Set.of("q", "!", "<", ">", "k", "g");
+
+  @Test
+  void firstSetsOfLab3Grammar() {
+    FirstFollow sets = FirstFollow.compute(Lab3Grammar.grammar());
+    for (String nt : List.of("E", "A", "T", "F")) {
+      assertEquals(OPERAND_START, sets.first(nt), nt);
+      assertFalse(sets.isNullable(nt), nt);
+    }
+    assertEquals(STATEMENT_START, sets.first("S"));
+    assertEquals(STATEMENT_START, sets.first("P"));
+    assertEquals(Set.of("{"), sets.first("B"));
+    assertEquals(Set.of("e"), sets.first("L"));
+    assertEquals(COMPARISONS, sets.first("R"));
+    assertEquals(Set.of("+", "-"), sets.first("X"));
+    assertEquals(Set.of("*", "/"), sets.first("Y"));
+    for (String nt : List.of("P", "L", "R", "X", "Y")) {
+      assertTrue(sets.isNullable(nt), nt);
+    }
+  }
+
+  @Test
+  void followSetsOfLab3Grammar() {
+    FirstFollow sets = FirstFollow.compute(Lab3Grammar.grammar());
+    Set<String> afterStatement = union(STATEMENT_START, Set.of("$", "}"));
+    Set<String> afterOperand = union(COMPARISONS, Set.of(";", ")"));
+    Set<String> afterTerm = union(afterOperand, Set.of("+", "-"));
+
+    assertEquals(Set.of("$", "}"), sets.follow("P"));
+    assertEquals(afterStatement, sets.follow("S"));
+    assertEquals(afterStatement, sets.follow("L"));
+    assertEquals(union(afterStatement, Set.of("e")), sets.follow("B"));
+    assertEquals(Set.of(";", ")"), sets.follow("E"));
+    assertEquals(Set.of(";", ")"), sets.follow("R"));
+    assertEquals(afterOperand, sets.follow("A"));
+    assertEquals(afterOperand, sets.follow("X"));
+    assertEquals(afterTerm, sets.follow("T"));
+    assertEquals(afterTerm, sets.follow("Y"));
+    assertEquals(union(afterTerm, Set.of("*", "/")), sets.follow("F"));
+  }
+
+  @Test
+  void lab3GrammarIsLl1() {
+    Ll1Table table = new Ll1TableGenerator().generate(Lab3Grammar.grammar());
+    assertTrue(table.isLl1(), table.getConflicts().toString());
+  }
+
+  @Test
+  void reportsConflictsOfANonLl1Grammar() {
+    Grammar grammar = new Grammar(Set.of("S", "B", "C"), Set.of("a", "b", "c"),
+        Map.of("S", List.of("aB", "aC"), "B", List.of("b"), "C", List.of("c")), "S");
+    Ll1Table table = new Ll1TableGenerator().generate(grammar);
+
+    assertFalse(table.isLl1());
+    assertEquals(List.of("M[S, a]: S → aB | S → aC"), table.getConflicts());
+  }
+
+  @Test
+  void syntaxErrorNamesTheOffendingToken() {
+    Ll1Parser parser = Lab3Grammar.parser();
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+        () -> parser.parse(new Lexer("x = ;").tokenize()));
+    assertTrue(e.getMessage().startsWith("Syntax error at token 2 (SEMICOLON)"), e.getMessage());
+
+    e = assertThrows(IllegalArgumentException.class,
+        () -> parser.parse(new Lexer("return 1").tokenize()));
+    assertTrue(e.getMessage().startsWith("Syntax error at token 2 (EOF)"), e.getMessage());
+
+    e = assertThrows(IllegalArgumentException.class,
+        () -> parser.parse(new Lexer("{ x = 1; ;").tokenize()));
+    assertTrue(e.getMessage().startsWith("Syntax error at token 5 (SEMICOLON)"), e.getMessage());
+  }
+
+  private static Set<String> union(Set<String> a, Set<String> b) {
+    Set<String> result = new HashSet<>(a);
+    result.addAll(b);
+    return result;
+  }
+}
@@ -0,0 +1,75 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class NdfaTest {
+
+  /** q0 →ε q1 →ε q2 →ε q0 is a cycle, q1 →a q3 →ε q4, q5 has no ε-moves. */
+  private static final Ndfa CYCLE = new Ndfa(
+      Set.of("q0", "q1", "q2", "q3", "q4", "q5"), Set.of('a'),
+      Map.of("q1", Map.of('a', Set.of("q3")), "q4", Map.of('a', Set.of("q5"))),
+      Map.of("q0", Set.of("q1"), "q1", Set.of("q2"), "q2", Set.of("q0"), "q3", Set.of("q4")),
+      "q0", Set.of("q4"));
+
+  @Test
+  void closureMatchesHandComputedSets() {
+    assertEquals(Set.of("q0", "q1", "q2"), CYCLE.epsilonClosure(Set.of("q0")));
+    assertEquals(Set.of("q0", "q1", "q2"), CYCLE.epsilonClosure(Set.of("q2")));
+    assertEquals(Set.of("q3", "q4"), CYCLE.epsilonClosure(Set.of("q3")));
+    assertEquals(Set.of("q4"), CYCLE.epsilonClosure(Set.of("q4")));
+    assertEquals(Set.of("q5"), CYCLE.epsilonClosure(Set.of("q5")));
+    assertEquals(Set.of("q0", "q1", "q2", "q3", "q4", "q5"), CYCLE.epsilonClosure(Set.of("q1", "q3", "q5")));
+    assertEquals(Set.of(), CYCLE.epsilonClosure(Set.of()));
+
+    assertEquals(Set.of("q3", "q4"), CYCLE.transition(Set.of("q0", "q1", "q2"), 'a'));
+    assertTrue(TestAutomata.ndfaAccepts(CYCLE, "a"));
+    assertFalse(TestAutomata.ndfaAccepts(CYCLE, ""));
+    assertFalse(TestAutomata.ndfaAccepts(CYCLE, "aa"));
+  }
+
+  @Test
+  void closureMatchesGraphSearch() {
+    Random rnd = new Random(32);
+    for (int round = 0; round < 300; round++) {
+      Ndfa ndfa = TestAutomata.randomNdfa(rnd, 1 + rnd.nextInt(12), "ab", true);
+      for (String state : ndfa.getStates()) {
+        assertEquals(searchClosure(ndfa, state), ndfa.epsilonClosure(Set.of(state)), state);
+      }
+    }
+  }
+
+  @Test
+  void removingEpsilonKeepsTheLanguage() {
+    Random rnd = new Random(33);
+    for (int round = 0; round < 300; round++) {
+      Ndfa ndfa = TestAutomata.randomNdfa(rnd, 1 + rnd.nextInt(12), "ab", true);
+      Ndfa free = ndfa.removeEpsilon();
+      assertFalse(free.hasEpsilonTransitions());
+      for (int w = 0; w < 50; w++) {
+        String word = TestAutomata.randomWord(rnd, "ab", 8);
+        assertEquals(TestAutomata.ndfaAccepts(ndfa, word), TestAutomata.ndfaAccepts(free, word), word);
+      }
+    }
+  }
+
+  private static Set<String> searchClosure(Ndfa ndfa, String from) {
+    Set<String> seen = new HashSet<>(Set.of(from));
+    Deque<String> stack = new ArrayDeque<>(seen);
+    while (!stack.isEmpty()) {
+      for (String next : ndfa.getEpsilonTransitions().getOrDefault(stack.pop(), Set.of())) {
+        if (seen.add(next)) {
+          stack.push(next);
+        }
+      }
+    }
+    return seen;
+  }
+}
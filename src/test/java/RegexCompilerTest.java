@@ -0,0 +1,76 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class RegexCompilerTest {
+
+  private static final String[] CLASSES = {"[ab]", "[a-c]", "[bc]", "[a-bc]"};
+
+  private final RegexCompiler compiler = new RegexCompiler();
+  private final NfaToDfaConverter converter = new NfaToDfaConverter();
+
+  @Test
+  void agreesWithJavaUtilRegex() {
+    Random rnd = new Random(31);
+    for (int round = 0; round < 300; round++) {
+      String pattern = randomPattern(rnd, 4);
+      Pattern expected = Pattern.compile(pattern);
+      FiniteAutomaton dfa = converter.convert(compiler.compile(pattern));
+      RangeAutomaton ranges = compiler.compileRanges(pattern);
+      for (int w = 0; w < 100; w++) {
+        String word = TestAutomata.randomWord(rnd, "abc", 8);
+        boolean matches = expected.matcher(word).matches();
+        assertEquals(matches, dfa.stringBelongToLanguage(word), pattern + " on " + word);
+        assertEquals(matches, ranges.accepts(word), pattern + " on " + word);
+      }
+    }
+  }
+
+  @Test
+  void wideClassesStayRanges() {
+    String pattern = "x[\u0000-\uffff]*(y|[Α-ω])";
+    Pattern expected = Pattern.compile(pattern);
+    RangeAutomaton ranges = compiler.compileRanges(pattern);
+    assertTrue(ranges.getPartition().classCount() < 10, "classes " + ranges.getPartition().classCount());
+
+    Random rnd = new Random(32);
+    for (int w = 0; w < 2000; w++) {
+      StringBuilder word = new StringBuilder(w % 2 == 0 ? "x" : "");
+      for (int i = rnd.nextInt(6); i > 0; i--) {
+        word.append(rnd.nextBoolean() ? "xyα".charAt(rnd.nextInt(3)) : (char) rnd.nextInt(0x10000));
+      }
+      assertEquals(expected.matcher(word).matches(), ranges.accepts(word.toString()), word.toString());
+    }
+  }
+
+  @Test
+  void compileRejectsClassesTooWideToExpand() {
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+        () -> compiler.compile("[\u0000-\uffff]"));
+    assertTrue(e.getMessage().contains("compileRanges"), e.getMessage());
+
+    String widest = "[Ā-" + (char) (0x100 + RegexCompiler.MAX_EXPANDED_CLASS - 1) + "]";
+    assertEquals(RegexCompiler.MAX_EXPANDED_CLASS, compiler.compile(widest).getAlphabet().size());
+  }
+
+  /** Pattern in the syntax both engines share: no escapes and no empty class. */
+  private static String randomPattern(Random rnd, int depth) {
+    if (depth == 0 || rnd.nextInt(4) == 0) {
+      int pick = rnd.nextInt(8);
+      return pick < 3 ? String.valueOf("abc".charAt(pick))
+          : pick < 7 ? CLASSES[pick - 3] : "()";
+    }
+    String a = randomPattern(rnd, depth - 1);
+    return switch (rnd.nextInt(5)) {
+      case 0 -> a + randomPattern(rnd, depth - 1);
+      case 1 -> "(" + a + "|" + randomPattern(rnd, depth - 1) + ")";
+      case 2 -> "(" + a + ")*";
+      case 3 -> "(" + a + ")+";
+      default -> "(" + a + ")?";
+    };
+  }
+}
@@ -0,0 +1,100 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+class StructuralFingerprintTest {
+
+  @Test
+  void renamingStatesKeepsTheFingerprint() {
+    Random rnd = new Random(26);
+    for (int round = 0; round < 500; round++) {
+      FiniteAutomaton fa = TestAutomata.randomDfa(rnd, 1 + rnd.nextInt(8), "ab");
+      for (int k = 0; k < 5; k++) {
+        assertEquals(StructuralFingerprint.of(fa), StructuralFingerprint.of(rename(fa, rnd)));
+      }
+    }
+  }
+
+  @Test
+  void symmetricUnreachableStatesDoNotDependOnNames() {
+    Map<String, Map<Character, String>> delta = new HashMap<>();
+    delta.put("d0", Map.of('a', "d0", 'b', "d0"));
+    delta.put("d1", Map.of('a', "d2"));
+    delta.put("d3", Map.of('a', "d4"));
+    FiniteAutomaton fa = new FiniteAutomaton(Set.of("d0", "d1", "d2", "d3", "d4"),
+        Set.of('a', 'b'), delta, "d0", Set.of("d0", "d2"));
+
+    Random rnd = new Random(1);
+    for (int k = 0; k < 50; k++) {
+      assertEquals(StructuralFingerprint.of(fa), StructuralFingerprint.of(rename(fa, rnd)));
+    }
+  }
+
+  @Test
+  void differentStructuresGetDifferentFingerprints() {
+    Map<String, Map<Character, String>> loop = Map.of("s", Map.of('a', "s"));
+    Map<String, Map<Character, String>> step = Map.of("s", Map.of('a', "t"));
+    FiniteAutomaton a = new FiniteAutomaton(Set.of("s", "t"), Set.of('a'), loop, "s", Set.of("s"));
+    FiniteAutomaton b = new FiniteAutomaton(Set.of("s", "t"), Set.of('a'), step, "s", Set.of("s"));
+    assertNotEquals(StructuralFingerprint.of(a), StructuralFingerprint.of(b));
+  }
+
+  @Test
+  void invalidateAllDropsResultsOfInFlightCompilations() throws Exception {
+    AutomatonCache<String> cache = new AutomatonCache<>(16);
+    StructuralFingerprint key = StructuralFingerprint.of(new Grammar());
+    CountDownLatch compiling = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<String> result = CompletableFuture.supplyAsync(() -> cache.get(key, () -> {
+      compiling.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return "stale";
+    }));
+    compiling.await();
+    cache.invalidateAll();
+    release.countDown();
+
+    assertEquals("stale", result.get());
+    assertNull(cache.getIfPresent(key));
+  }
+
+  private static FiniteAutomaton rename(FiniteAutomaton fa, Random rnd) {
+    List<String> old = new ArrayList<>(fa.getStates());
+    List<String> fresh = new ArrayList<>();
+    for (int i = 0; i < old.size(); i++) {
+      fresh.add("r" + (i * 7919 + rnd.nextInt(1000)));
+    }
+    Collections.shuffle(fresh, rnd);
+    Map<String, String> names = new HashMap<>();
+    for (int i = 0; i < old.size(); i++) {
+      names.put(old.get(i), fresh.get(i));
+    }
+    Map<String, Map<Character, String>> delta = new HashMap<>();
+    for (Map.Entry<String, Map<Character, String>> e : fa.getDelta().entrySet()) {
+      Map<Character, String> row = new HashMap<>();
+      e.getValue().forEach((c, t) -> row.put(c, names.get(t)));
+      delta.put(names.get(e.getKey()), row);
+    }
+    Set<String> finals = new HashSet<>();
+    fa.getFinalStates().forEach(f -> finals.add(names.get(f)));
+    return new FiniteAutomaton(new HashSet<>(names.values()), fa.getAlphabet(), delta,
+        names.get(fa.getStartState()), finals);
+  }
+}
@@ -0,0 +1,88 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import lexer.Lexer;
+import org.junit.jupiter.api.Test;
+
+class SyntaxTreeTest {
+
+  private final Ll1Parser parser = Lab3Grammar.parser();
+
+  @Test
+  void compactTreeDropsEmptyAndSingleChildNodes() {
+    SyntaxTree tree = parser.parse(new Lexer("x = 1; return x;").tokenize());
+    String expected = """
+        P
+          S
+            i #0
+            = #1
+            n #2
+            ; #3
+          S
+            r #4
+            i #5
+            ; #6
+        """;
+    assertEquals(expected, tree.toString());
+  }
+
+  @Test
+  void derivationTreeKeepsEveryExpansion() {
+    int[] tokens = new Lexer("return x;").tokenize().stream()
+        .mapToInt(t -> t.getType().ordinal()).toArray();
+    SyntaxTree tree = parser.parseDerivation(tokens);
+    String expected = """
+        P
+          S
+            r #0
+            E
+              A
+                T
+                  F
+                    i #1
+                  Y
+                X
+              R
+            ; #2
+        P
+        """;
+    assertEquals(expected, tree.toString());
+    assertEquals("E → AR", tree.production(4));
+  }
+
+  @Test
+  void operatorChainsStayAtOneDepth() {
+    SyntaxTree tree = parser.parse(new Lexer("x = 1 + 2 + 3;").tokenize());
+    String expected = """
+        S
+          i #0
+          = #1
+          A
+            n #2
+            X
+              + #3
+              n #4
+            X
+              + #5
+              n #6
+          ; #7
+        """;
+    assertEquals(expected, tree.toString());
+  }
+
+  @Test
+  void printsLargeProgramsInLinearSpace() {
+    int statements = 20_000;
+    String source = "let x = 1;\n".repeat(statements);
+    SyntaxTree tree = parser.parse(new Lexer(source).tokenize());
+
+    String printed = tree.toString();
+    String[] lines = printed.split("\n");
+    assertEquals(tree.size(), lines.length);
+    int widest = 0;
+    for (String line : lines) {
+      widest = Math.max(widest, line.length());
+    }
+    assertTrue(widest < 40, "widest line " + widest);
+  }
+}
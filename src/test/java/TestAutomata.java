@@ -0,0 +1,141 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/** Random automata and inputs shared by the matcher tests. */
+final class TestAutomata {
+
+  private TestAutomata() {
+  }
+
+  /** Partial DFA over {@code alphabet}: each transition exists with probability 3/4. */
+  static FiniteAutomaton randomDfa(Random rnd, int states, String alphabet) {
+    Set<String> names = new HashSet<>();
+    Set<String> finals = new HashSet<>();
+    Set<Character> symbols = new HashSet<>();
+    Map<String, Map<Character, String>> delta = new HashMap<>();
+    for (char c : alphabet.toCharArray()) {
+      symbols.add(c);
+    }
+    for (int i = 0; i < states; i++) {
+      names.add("q" + i);
+      if (rnd.nextInt(3) == 0) {
+        finals.add("q" + i);
+      }
+      for (char c : alphabet.toCharArray()) {
+        if (rnd.nextInt(4) > 0) {
+          delta.computeIfAbsent("q" + i, k -> new HashMap<>()).put(c, "q" + rnd.nextInt(states));
+        }
+      }
+    }
+    return new FiniteAutomaton(names, symbols, delta, "q0", finals);
+  }
+
+  /**
+   * NFA over {@code alphabet} with up to two targets per transition and, if {@code epsilon},
+   * an ε-transition from each state with probability 1/4.
+   */
+  static Ndfa randomNdfa(Random rnd, int states, String alphabet, boolean epsilon) {
+    Set<String> names = new HashSet<>();
+    Set<String> finals = new HashSet<>();
+    Set<Character> symbols = new HashSet<>();
+    Map<String, Map<Character, Set<String>>> delta = new HashMap<>();
+    Map<String, Set<String>> epsilons = new HashMap<>();
+    for (char c : alphabet.toCharArray()) {
+      symbols.add(c);
+    }
+    for (int i = 0; i < states; i++) {
+      names.add("q" + i);
+      if (rnd.nextInt(3) == 0) {
+        finals.add("q" + i);
+      }
+      for (char c : alphabet.toCharArray()) {
+        for (int t = rnd.nextInt(3); t > 0; t--) {
+          delta.computeIfAbsent("q" + i, k -> new HashMap<>())
+              .computeIfAbsent(c, k -> new HashSet<>()).add("q" + rnd.nextInt(states));
+        }
+      }
+      if (epsilon && rnd.nextInt(4) == 0) {
+        epsilons.computeIfAbsent("q" + i, k -> new HashSet<>()).add("q" + rnd.nextInt(states));
+      }
+    }
+    return new Ndfa(names, symbols, delta, epsilons, "q0", finals);
+  }
+
+  /** Reference NFA run: the ε-closed active set, one symbol at a time. */
+  static boolean ndfaAccepts(Ndfa ndfa, String word) {
+    Set<String> active = ndfa.epsilonClosure(Set.of(ndfa.getStartState()));
+    for (int i = 0; i < word.length() && !active.isEmpty(); i++) {
+      active = ndfa.transition(active, word.charAt(i));
+    }
+    for (String state : active) {
+      if (ndfa.getFinalStates().contains(state)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Moore partition refinement over the disjoint union of the tables, each completed with
+   * one shared dead state. Returns the equivalence block of every state: table i's states
+   * follow those of tables 0..i-1, its start state first, and the dead state comes last.
+   * States in the same block accept the same language.
+   */
+  static int[] mooreBlocks(List<DfaTable> tables, String alphabet) {
+    int total = 0;
+    for (DfaTable t : tables) {
+      total += t.stateCount();
+    }
+    int dead = total;
+    int[][] next = new int[total + 1][alphabet.length()];
+    int[] block = new int[total + 1];
+    int offset = 0;
+    for (DfaTable t : tables) {
+      for (int q = 0; q < t.stateCount(); q++) {
+        block[offset + q] = t.isAccepting(q) ? 1 : 0;
+        for (int c = 0; c < alphabet.length(); c++) {
+          int s = t.symbolIndex(alphabet.charAt(c));
+          int to = s < 0 ? -1 : t.next(q, s);
+          next[offset + q][c] = to < 0 ? dead : offset + to;
+        }
+      }
+      offset += t.stateCount();
+    }
+    Arrays.fill(next[dead], dead);
+
+    int blocks = -1;
+    while (true) {
+      Map<List<Integer>, Integer> ids = new HashMap<>();
+      int[] refined = new int[block.length];
+      for (int q = 0; q < block.length; q++) {
+        List<Integer> signature = new ArrayList<>();
+        signature.add(block[q]);
+        for (int to : next[q]) {
+          signature.add(block[to]);
+        }
+        refined[q] = ids.computeIfAbsent(signature, k -> ids.size());
+      }
+      block = refined;
+      if (ids.size() == blocks) {
+        return block;
+      }
+      blocks = ids.size();
+    }
+  }
+
+  /** Word over {@code alphabet} plus one char outside it. */
+  static String randomWord(Random rnd, String alphabet, int maxLength) {
+    StringBuilder word = new StringBuilder();
+    for (int i = rnd.nextInt(maxLength + 1); i > 0; i--) {
+      int pick = rnd.nextInt(alphabet.length() + 1);
+      word.append(pick == alphabet.length() ? '#' : alphabet.charAt(pick));
+    }
+    return word.toString();
+  }
+}
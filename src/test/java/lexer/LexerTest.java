@@ -0,0 +1,36 @@
+package lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LexerTest {
+
+  @Test
+  void singleEqualsIsAssignment() {
+    assertEquals(List.of(TokenType.IDENTIFIER, TokenType.ASSIGN, TokenType.INTEGER, TokenType.EOF),
+        types("x = 1"));
+    assertEquals(List.of(TokenType.IDENTIFIER, TokenType.ASSIGN, TokenType.IDENTIFIER, TokenType.EOF),
+        types("x=y"));
+  }
+
+  @Test
+  void doubleEqualsIsComparison() {
+    assertEquals(List.of(TokenType.IDENTIFIER, TokenType.EQUALS, TokenType.IDENTIFIER, TokenType.EOF),
+        types("a == b"));
+    assertEquals(List.of(TokenType.IDENTIFIER, TokenType.ASSIGN, TokenType.IDENTIFIER,
+        TokenType.EQUALS, TokenType.INTEGER, TokenType.EOF), types("a=b==1"));
+  }
+
+  @Test
+  void lexemesMatchTheSource() {
+    List<Token> tokens = new Lexer("x = y == 2").tokenize();
+    assertEquals("=", tokens.get(1).getLexeme());
+    assertEquals("==", tokens.get(3).getLexeme());
+  }
+
+  private static List<TokenType> types(String source) {
+    return new Lexer(source).tokenize().stream().map(Token::getType).toList();
+  }
+}
@@ -0,0 +1,118 @@
+package lexer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TokenCacheTest {
+
+  private static final String SOURCE = """
+      let x = 12;
+      if (x >= 10) {
+          return sin(x) + cos(3.14) / 2;
+      } else {
+          return x != 1;
+      }
+      """;
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void encodeDecodeRoundTrips() {
+    TokenSpans spans = new TokenSpans();
+    List<Token> tokens = new Lexer(SOURCE).tokenize(spans);
+    byte[] encoded = TokenCache.encode(tokens, spans);
+
+    assertEquals(text(tokens), text(TokenCache.decode(encoded, SOURCE)));
+  }
+
+  @Test
+  void decodeRejectsImpossibleCountsAndLeftoverBytes() {
+    TokenSpans spans = new TokenSpans();
+    byte[] encoded = TokenCache.encode(new Lexer(SOURCE).tokenize(spans), spans);
+
+    // Varint 0x7FFFFFF0: a count near Integer.MAX_VALUE followed by too few bytes.
+    byte[] huge = {(byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0, 1, 1};
+    assertNull(TokenCache.decode(huge, SOURCE));
+    assertNull(TokenCache.decode(Arrays.copyOf(encoded, encoded.length + 1), SOURCE));
+    assertNull(TokenCache.decode(Arrays.copyOf(encoded, encoded.length - 1), SOURCE));
+    assertNull(TokenCache.decode(encoded, SOURCE.substring(0, SOURCE.length() / 2)));
+  }
+
+  @Test
+  void corruptFileFallsBackToLexing() throws IOException {
+    List<Token> expected = new Lexer(SOURCE).tokenize();
+    new TokenCache(16, dir).tokenize(SOURCE);
+    Path file = onlyEntry();
+
+    // Overwrite the token count right after the 48-byte file header with a huge varint.
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.seek(48);
+      raf.write(new byte[] {(byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+    }
+    TokenCache fresh = new TokenCache(16, dir);
+    assertEquals(text(expected), text(fresh.tokenize(SOURCE)));
+    assertEquals(0, fresh.getDiskHits());
+    assertEquals(1, fresh.getMisses());
+  }
+
+  @Test
+  void intactFileIsADiskHit() throws IOException {
+    new TokenCache(16, dir).tokenize(SOURCE);
+    assertNotNull(onlyEntry());
+
+    TokenCache fresh = new TokenCache(16, dir);
+    assertEquals(text(new Lexer(SOURCE).tokenize()), text(fresh.tokenize(SOURCE)));
+    assertEquals(1, fresh.getDiskHits());
+    assertEquals(0, fresh.getMisses());
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedEntry() {
+    TokenCache cache = new TokenCache(2);
+    cache.tokenize("let a = 1;");
+    cache.tokenize("let b = 2;");
+    cache.tokenize("let a = 1;"); // a is now more recent than b
+    cache.tokenize("let c = 3;"); // evicts b
+    assertEquals(1, cache.getMemoryHits());
+    assertEquals(3, cache.getMisses());
+
+    cache.tokenize("let a = 1;");
+    assertEquals(2, cache.getMemoryHits());
+    cache.tokenize("let b = 2;");
+    assertEquals(4, cache.getMisses());
+  }
+
+  @Test
+  void sourcesWithTheSameLengthDoNotShareEntries() {
+    TokenCache cache = new TokenCache(16);
+    List<Token> first = cache.tokenize("let a = 1;");
+    List<Token> second = cache.tokenize("let b = 2;");
+    assertEquals(2, cache.getMisses());
+    assertEquals(text(new Lexer("let b = 2;").tokenize()), text(second));
+    assertEquals(text(new Lexer("let a = 1;").tokenize()), text(first));
+  }
+
+  private Path onlyEntry() throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      List<Path> entries = files.filter(p -> p.toString().endsWith(".tok")).toList();
+      assertEquals(1, entries.size());
+      return entries.getFirst();
+    }
+  }
+
+  private static String text(List<Token> tokens) {
+    return String.valueOf(tokens);
+  }
+}